@@ -0,0 +1,291 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class defines the shape of the battle area the player moves in. Besides a plain
+ * rectangle it supports a triangle, a ring and a cross. When an arena is created it is drawn once into a
+ * mask and turned into tables of horizontal spans for every row, so checking if a point is inside the
+ * arena or keeping the player inside it is a table lookup instead of a polygon test.
+ */
+import java.awt.*;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+public class Arena {
+    // all the possible arena shapes
+    public enum Shape {
+        RECTANGLE,
+        TRIANGLE,
+        RING,
+        CROSS
+    }
+
+    private static final int MAX_SHIFT = 6; // how far the player can be pushed sideways along a slanted wall
+
+    private Shape shape;
+    private Rectangle bounds;
+    private java.awt.Shape outline;
+
+    // spans of the arena for each row, stored as {start, end, start, end, ...} with exclusive ends
+    private int[][] spans;
+
+    // spans of valid top-left x positions for a hitbox of a fixed size, for each row, with inclusive ends
+    private int fitWidth;
+    private int fitHeight;
+    private int[][] fits;
+
+    // constructor that builds the span tables for the given shape inside the given bounds
+    public Arena(Shape shape, Rectangle bounds, int fitWidth, int fitHeight) {
+        this.shape = shape;
+        this.bounds = new Rectangle(bounds);
+        this.fitWidth = fitWidth;
+        this.fitHeight = fitHeight;
+
+        outline = createOutline(shape, this.bounds);
+        buildSpans();
+        buildFits();
+    }
+
+    // creates the outline of the arena in screen coordinates
+    private static java.awt.Shape createOutline(Shape shape, Rectangle b) {
+        Area ring;
+        int armX;
+        int armY;
+
+        if (shape == Shape.TRIANGLE) {
+            return new Polygon(new int[]{b.x + b.width / 2, b.x + b.width, b.x}, new int[]{b.y, b.y + b.height, b.y + b.height}, 3);
+        } else if (shape == Shape.RING) {
+            ring = new Area(new Ellipse2D.Double(b.x, b.y, b.width, b.height));
+            ring.subtract(new Area(new Ellipse2D.Double(b.x + b.width * 0.3, b.y + b.height * 0.3, b.width * 0.4, b.height * 0.4)));
+            return ring;
+        } else if (shape == Shape.CROSS) {
+            // a vertical bar a third of the width wide and a horizontal bar half the height tall
+            armX = b.width / 3;
+            armY = b.height / 4;
+            return new Polygon(
+                new int[]{b.x + armX, b.x + 2 * armX, b.x + 2 * armX, b.x + b.width, b.x + b.width, b.x + 2 * armX,
+                          b.x + 2 * armX, b.x + armX, b.x + armX, b.x, b.x, b.x + armX},
+                new int[]{b.y, b.y, b.y + armY, b.y + armY, b.y + 3 * armY, b.y + 3 * armY,
+                          b.y + b.height, b.y + b.height, b.y + 3 * armY, b.y + 3 * armY, b.y + armY, b.y + armY},
+                12);
+        }
+        return new Rectangle(b);
+    }
+
+    // draws the outline into a mask once and reads back the filled spans of every row
+    private void buildSpans() {
+        BufferedImage mask;
+        Graphics2D g2d;
+        byte[] pixels;
+        int[] row;
+        int count;
+        boolean inside;
+        boolean filled;
+
+        mask = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_BYTE_GRAY);
+        g2d = mask.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.translate(-bounds.x, -bounds.y);
+        g2d.fill(outline);
+        g2d.dispose();
+        pixels = ((DataBufferByte) mask.getRaster().getDataBuffer()).getData();
+
+        spans = new int[bounds.height][];
+        row = new int[bounds.width + 2];
+        for (int y = 0; y < bounds.height; y++) {
+            count = 0;
+            inside = false;
+            for (int x = 0; x <= bounds.width; x++) {
+                filled = x < bounds.width && pixels[y * bounds.width + x] != 0;
+                if (filled != inside) {
+                    row[count++] = bounds.x + x;
+                    inside = filled;
+                }
+            }
+            spans[y] = java.util.Arrays.copyOf(row, count);
+        }
+    }
+
+    // works out, for every row, where the top-left corner of the hitbox can go so the whole hitbox is inside
+    private void buildFits() {
+        int[] current;
+        int[] next;
+        int[] rowFits;
+        int count;
+
+        fits = new int[bounds.height][];
+        for (int y = 0; y < bounds.height; y++) {
+            if (y + fitHeight > bounds.height) {
+                fits[y] = new int[0];
+                continue;
+            }
+
+            // positions that work for the first row of the hitbox
+            current = rowFits(spans[y]);
+
+            // keep only the positions that also work for every other row the hitbox covers
+            for (int r = y + 1; r < y + fitHeight && current.length > 0; r++) {
+                rowFits = rowFits(spans[r]);
+                next = new int[current.length + rowFits.length];
+                count = 0;
+                for (int i = 0; i < current.length; i += 2) {
+                    for (int j = 0; j < rowFits.length; j += 2) {
+                        if (Math.max(current[i], rowFits[j]) <= Math.min(current[i + 1], rowFits[j + 1])) {
+                            next[count++] = Math.max(current[i], rowFits[j]);
+                            next[count++] = Math.min(current[i + 1], rowFits[j + 1]);
+                        }
+                    }
+                }
+                current = java.util.Arrays.copyOf(next, count);
+            }
+            fits[y] = current;
+        }
+    }
+
+    // turns the spans of one row into the range of x positions a hitbox of fitWidth can start at
+    private int[] rowFits(int[] rowSpans) {
+        int[] result;
+        int count;
+
+        result = new int[rowSpans.length];
+        count = 0;
+        for (int i = 0; i < rowSpans.length; i += 2) {
+            if (rowSpans[i + 1] - rowSpans[i] >= fitWidth) {
+                result[count++] = rowSpans[i];
+                result[count++] = rowSpans[i + 1] - fitWidth;
+            }
+        }
+        return java.util.Arrays.copyOf(result, count);
+    }
+
+    // checks if this arena was built for the given shape and bounds, so it can be reused
+    public boolean matches(Shape shape, Rectangle bounds) {
+        return this.shape == shape && this.bounds.equals(bounds);
+    }
+
+    // checks if a point is inside the arena
+    public boolean contains(int x, int y) {
+        int[] rowSpans;
+
+        if (y < bounds.y || y >= bounds.y + bounds.height) {
+            return false;
+        }
+        rowSpans = spans[y - bounds.y];
+        for (int i = 0; i < rowSpans.length; i += 2) {
+            if (x >= rowSpans[i] && x < rowSpans[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // checks if a point is inside the arena's bounding box but outside the arena itself (a wall)
+    public boolean isWall(int x, int y) {
+        return bounds.contains(x, y) && !contains(x, y);
+    }
+
+    // checks if a hitbox with its top-left corner at the given position is fully inside the arena
+    private boolean fits(int x, int y) {
+        int[] rowFits;
+
+        if (y < bounds.y || y >= bounds.y + bounds.height) {
+            return false;
+        }
+        rowFits = fits[y - bounds.y];
+        for (int i = 0; i < rowFits.length; i += 2) {
+            if (x >= rowFits[i] && x <= rowFits[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // returns the valid x position in a row closest to x, or Integer.MIN_VALUE if the row has none
+    private int nearestFitX(int x, int y) {
+        int[] rowFits;
+        int best;
+        int candidate;
+
+        if (y < bounds.y || y >= bounds.y + bounds.height) {
+            return Integer.MIN_VALUE;
+        }
+        rowFits = fits[y - bounds.y];
+        best = Integer.MIN_VALUE;
+        for (int i = 0; i < rowFits.length; i += 2) {
+            candidate = Math.max(rowFits[i], Math.min(x, rowFits[i + 1]));
+            if (best == Integer.MIN_VALUE || Math.abs(candidate - x) < Math.abs(best - x)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    // moves the hitbox by the given deltas, sliding along walls and never leaving the arena
+    public void move(Rectangle hitbox, int dx, int dy) {
+        int nx;
+        int ny;
+        int sx;
+
+        nx = hitbox.x + dx;
+        ny = Math.max(bounds.y, Math.min(hitbox.y + dy, bounds.y + bounds.height - fitHeight));
+
+        // try the full move, then the full move pushed sideways a little (for slanted walls), then each axis alone
+        if (fits(nx, ny)) {
+            hitbox.x = nx;
+            hitbox.y = ny;
+            return;
+        }
+        sx = nearestFitX(nx, ny);
+        if (sx != Integer.MIN_VALUE && Math.abs(sx - nx) <= Math.max(MAX_SHIFT, Math.abs(dx))) {
+            hitbox.x = sx;
+            hitbox.y = ny;
+            return;
+        }
+        sx = nearestFitX(nx, hitbox.y);
+        if (sx != Integer.MIN_VALUE && Math.abs(sx - hitbox.x) <= Math.abs(dx)) {
+            hitbox.x = sx;
+            return;
+        }
+        if (fits(hitbox.x, ny)) {
+            hitbox.y = ny;
+        }
+    }
+
+    // places the hitbox as close as possible to the given center point
+    public void placeNear(Rectangle hitbox, int cx, int cy) {
+        int startY;
+        int y;
+        int x;
+
+        startY = cy - fitHeight / 2;
+
+        // search the rows outwards from the center until one has room for the hitbox
+        for (int offset = 0; offset < bounds.height; offset++) {
+            for (int sign = -1; sign <= 1; sign += 2) {
+                y = startY + offset * sign;
+                x = nearestFitX(cx - fitWidth / 2, y);
+                if (x != Integer.MIN_VALUE) {
+                    hitbox.x = x;
+                    hitbox.y = y;
+                    return;
+                }
+            }
+        }
+    }
+
+    // returns the shape of the arena
+    public Shape getShape() {
+        return shape;
+    }
+
+    // returns the bounding box of the arena
+    public Rectangle getBounds() {
+        return bounds;
+    }
+
+    // returns the outline of the arena for drawing
+    public java.awt.Shape getOutline() {
+        return outline;
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class packs the Images and Sounds folders and the font into one archive file, and reads
+ * assets back out of it. Images are stored as raw ARGB pixels and sounds as raw 16-bit PCM, already decoded,
+ * so loading them is a copy out of memory instead of decoding a PNG or WAV. The archive is memory mapped,
+ * so the operating system only reads the parts that are actually used, from one open file. Animated gifs
+ * and the font are stored as they are. Build the archive with: java Main --pack
+ * The index also records the size and date of every file the archive was built from. If there is no archive,
+ * or the files in the folders aren't exactly those any more, the game reads the loose files like before.
+ */
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+public class AssetArchive {
+    public static final String FILE = "assets.pak";
+    private static final String FONT = "PixelOperator8-Bold.ttf";
+    private static final int MAGIC = 0x49435350; // "ICSP"
+    private static final int VERSION = 2;
+
+    // the kinds of entries
+    private static final byte IMAGE = 0; // width, height, then ARGB pixels
+    private static final byte SOUND = 1; // sample rate, channels, then 16-bit signed little-endian PCM
+    private static final byte RAW = 2; // the file as it is
+
+    // where one asset is in the archive
+    private static class Entry {
+        byte type;
+        int width; // or the sample rate of a sound
+        int height; // or the channels of a sound
+        int offset;
+        int length;
+        long sourceSize; // the size and date of the file it was packed from
+        long sourceModified;
+    }
+
+    private static AssetArchive shared;
+    private static boolean opened = false;
+
+    private MappedByteBuffer data;
+    private HashMap<String, Entry> index;
+
+    // returns the game's archive, opening it the first time, or null if it hasn't been built
+    public static synchronized AssetArchive get() {
+        if (!opened) {
+            opened = true;
+            if (new File(FILE).exists() && !isUpToDate()) {
+                System.out.println("The asset archive doesn't match the Images and Sounds folders, using the loose files."
+                        + " Rebuild it with: java Main --pack");
+            } else if (new File(FILE).exists()) {
+                try {
+                    shared = new AssetArchive(new File(FILE));
+                } catch (IOException e) {
+                    System.out.println("Error opening the asset archive, using the loose files:" + e.getMessage());
+                }
+            }
+        }
+        return shared;
+    }
+
+    // maps an archive file and reads its index
+    private AssetArchive(File file) throws IOException {
+        data = map(file);
+        index = readIndex(data);
+    }
+
+    // maps a whole archive file into memory
+    private static MappedByteBuffer map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // reads the index at the start of an archive
+    private static HashMap<String, Entry> readIndex(ByteBuffer data) throws IOException {
+        HashMap<String, Entry> entries;
+        int count;
+        byte[] name;
+        Entry entry;
+
+        data = data.duplicate();
+        if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+            throw new IOException("not an asset archive, or an old version");
+        }
+        entries = new HashMap<>();
+        count = data.getInt();
+        for (int i = 0; i < count; i++) {
+            name = new byte[data.getShort()];
+            data.get(name);
+            entry = new Entry();
+            entry.type = data.get();
+            entry.width = data.getInt();
+            entry.height = data.getInt();
+            entry.offset = data.getInt();
+            entry.length = data.getInt();
+            entry.sourceSize = data.getLong();
+            entry.sourceModified = data.getLong();
+            entries.put(new String(name, StandardCharsets.UTF_8), entry);
+        }
+        return entries;
+    }
+
+    // turns "/Images/a.png" and "Images/a.png" into the same key
+    private static String key(String path) {
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    // checks if the archive has an asset
+    public boolean contains(String path) {
+        return index.containsKey(key(path));
+    }
+
+    // returns the bytes of an asset as a view of the mapped file, nothing is copied
+    private ByteBuffer slice(Entry entry) {
+        return data.duplicate().position(entry.offset).limit(entry.offset + entry.length).slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // returns an image from the archive, or null if it isn't in it
+    public BufferedImage readImage(String path) throws IOException {
+        Entry entry;
+        BufferedImage image;
+        int[] pixels;
+
+        entry = index.get(key(path));
+        if (entry == null) {
+            return null;
+        }
+        if (entry.type == RAW) {
+            return ImageIO.read(open(path));
+        }
+        pixels = new int[entry.width * entry.height];
+        slice(entry).asIntBuffer().get(pixels);
+        image = new BufferedImage(entry.width, entry.height, BufferedImage.TYPE_INT_ARGB);
+        image.getRaster().setDataElements(0, 0, entry.width, entry.height, pixels);
+        return image;
+    }
+
+    // returns a sound from the archive as a stream of its PCM, or null if it isn't in it
+    public AudioInputStream openSound(String path) {
+        Entry entry;
+        AudioFormat format;
+
+        entry = index.get(key(path));
+        if (entry == null || entry.type != SOUND) {
+            return null;
+        }
+        format = new AudioFormat(entry.width, 16, entry.height, true, false);
+        return new AudioInputStream(new BufferInputStream(slice(entry)), format, entry.length / format.getFrameSize());
+    }
+
+    // returns a stream of any asset's bytes, or null if it isn't in the archive
+    public InputStream open(String path) {
+        Entry entry;
+
+        entry = index.get(key(path));
+        if (entry == null) {
+            return null;
+        }
+        return new BufferInputStream(slice(entry));
+    }
+
+    // returns a copy of any asset's bytes, or null if it isn't in the archive
+    public byte[] readBytes(String path) {
+        Entry entry;
+        byte[] bytes;
+
+        entry = index.get(key(path));
+        if (entry == null) {
+            return null;
+        }
+        bytes = new byte[entry.length];
+        slice(entry).get(bytes);
+        return bytes;
+    }
+
+    // reads straight out of the mapped file
+    private static class BufferInputStream extends InputStream {
+        private ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    // checks that the archive exists and was built from exactly the images, sounds and font that are there now:
+    // the same files, with the same sizes and dates. a file that was added, removed, replaced by an older copy
+    // or changed makes it stale. this only reads the index and the file listings, so it is much cheaper than
+    // packing again
+    public static boolean isUpToDate() {
+        File archive;
+        HashMap<String, Entry> packed;
+        HashMap<String, File> sources;
+        File[] files;
+        Entry entry;
+
+        archive = new File(FILE);
+        if (!archive.exists()) {
+            return false;
+        }
+        try {
+            packed = readIndex(map(archive));
+        } catch (IOException | RuntimeException e) {
+            return false; // an old version or a broken file
+        }
+        sources = new HashMap<>();
+        sources.put(FONT, new File(FONT));
+        for (String folder : new String[] {"Images", "Sounds"}) {
+            files = new File(folder).listFiles(File::isFile);
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                sources.put(folder + "/" + file.getName(), file);
+            }
+        }
+        if (sources.size() != packed.size()) {
+            return false;
+        }
+        for (String name : sources.keySet()) {
+            entry = packed.get(name);
+            if (entry == null || entry.sourceSize != sources.get(name).length()
+                    || entry.sourceModified != sources.get(name).lastModified()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the build step: packs the Images and Sounds folders and the font into the archive file
+    public static void pack() throws IOException {
+        ByteArrayOutputStream payload;
+        ByteArrayOutputStream header;
+        DataOutputStream out;
+        File[] images;
+        File[] sounds;
+        int count;
+        int headerSize;
+
+        payload = new ByteArrayOutputStream();
+        header = new ByteArrayOutputStream();
+        out = new DataOutputStream(header);
+        images = listFiles("Images");
+        sounds = listFiles("Sounds");
+        count = images.length + sounds.length + 1;
+
+        // the index comes first and its entries all have a fixed size apart from the name, so its size is
+        // known up front and the data offsets can count from the start of the file
+        headerSize = 12 + entrySize(FONT);
+        for (File image : images) {
+            headerSize += entrySize("Images/" + image.getName());
+        }
+        for (File sound : sounds) {
+            headerSize += entrySize("Sounds/" + sound.getName());
+        }
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(count);
+        for (File image : images) {
+            packImage(out, payload, headerSize, image);
+        }
+        for (File sound : sounds) {
+            packSound(out, payload, headerSize, sound);
+        }
+        packRaw(out, payload, headerSize, FONT, new File(FONT));
+
+        try (FileOutputStream file = new FileOutputStream(FILE)) {
+            header.writeTo(file);
+            payload.writeTo(file);
+        }
+        System.out.println("Packed " + count + " assets into " + FILE + " (" + (header.size() + payload.size()) / 1024 + " KB)");
+    }
+
+    // returns the size of an index entry
+    private static int entrySize(String name) {
+        return 2 + name.getBytes(StandardCharsets.UTF_8).length + 1 + 4 * 4 + 8 * 2;
+    }
+
+    // returns the files of a folder in a fixed order
+    private static File[] listFiles(String folder) throws IOException {
+        File[] files;
+
+        files = new File(folder).listFiles(File::isFile);
+        if (files == null) {
+            throw new IOException("missing folder " + folder);
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    // adds an image as raw pixels, animated gifs are kept as they are
+    private static void packImage(DataOutputStream out, ByteArrayOutputStream payload, int headerSize, File file) throws IOException {
+        BufferedImage image;
+        int[] pixels;
+        ByteBuffer bytes;
+
+        if (file.getName().endsWith(".gif")) {
+            packRaw(out, payload, headerSize, "Images/" + file.getName(), file);
+            return;
+        }
+        image = ImageIO.read(file);
+        pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        bytes = ByteBuffer.allocate(pixels.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asIntBuffer().put(pixels);
+        writeEntry(out, payload, headerSize, "Images/" + file.getName(), file, IMAGE, image.getWidth(), image.getHeight(), bytes.array());
+    }
+
+    // adds a sound as 16-bit signed little-endian PCM in its own sample rate and channels
+    private static void packSound(DataOutputStream out, ByteArrayOutputStream payload, int headerSize, File file) throws IOException {
+        AudioInputStream stream;
+        AudioFormat format;
+
+        try {
+            stream = AudioSystem.getAudioInputStream(file);
+        } catch (Exception e) {
+            throw new IOException("can't read " + file + ": " + e.getMessage());
+        }
+        format = new AudioFormat(stream.getFormat().getSampleRate(), 16, stream.getFormat().getChannels(), true, false);
+        if (!stream.getFormat().matches(format)) {
+            stream = AudioSystem.getAudioInputStream(format, stream);
+        }
+        writeEntry(out, payload, headerSize, "Sounds/" + file.getName(), file, SOUND, (int) format.getSampleRate(), format.getChannels(), stream.readAllBytes());
+        stream.close();
+    }
+
+    // adds a file as it is
+    private static void packRaw(DataOutputStream out, ByteArrayOutputStream payload, int headerSize, String name, File file) throws IOException {
+        writeEntry(out, payload, headerSize, name, file, RAW, 0, 0, Files.readAllBytes(file.toPath()));
+    }
+
+    // writes one index entry, with the size and date of the file it came from, and its data
+    private static void writeEntry(DataOutputStream out, ByteArrayOutputStream payload, int headerSize, String name,
+            File source, byte type, int width, int height, byte[] bytes) throws IOException {
+        byte[] nameBytes;
+
+        nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(nameBytes.length);
+        out.write(nameBytes);
+        out.writeByte(type);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(headerSize + payload.size());
+        out.writeInt(bytes.length);
+        out.writeLong(source.length());
+        out.writeLong(source.lastModified());
+        payload.write(bytes);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class loads the game's assets in parallel on a small pool of background threads. Each
+ * image, font or sound is its own task, so loading everything takes about as long as the slowest asset
+ * instead of the sum of all of them. It keeps count of finished tasks for the loading screen, and can run
+ * code on the event thread once a group of tasks has finished (for example once the main menu's assets are in).
+ */
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+
+public class AssetLoader {
+    private static final int MAX_THREADS = 4; // decoding is mostly disk and memory bound, more threads don't help
+
+    private ExecutorService executor;
+    private ArrayList<CompletableFuture<Void>> tasks = new ArrayList<>();
+    private AtomicInteger finished = new AtomicInteger();
+
+    // creates the loader and its threads
+    public AssetLoader() {
+        int threads;
+
+        threads = Math.max(2, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "asset-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // starts loading an asset. an asset that fails to load is reported and counted as finished, so one
+    // missing file never holds up the rest
+    public synchronized CompletableFuture<Void> load(Runnable task) {
+        CompletableFuture<Void> future;
+
+        future = CompletableFuture.runAsync(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                finished.incrementAndGet();
+            }
+        }, executor);
+        tasks.add(future);
+        return future;
+    }
+
+    // runs the given code on the event thread once all of the given tasks have finished
+    public void whenLoaded(Runnable action, CompletableFuture<?>... group) {
+        CompletableFuture.allOf(group).thenRun(() -> SwingUtilities.invokeLater(action));
+    }
+
+    // waits until every task started so far has finished, used by headless sessions
+    public void awaitAll() {
+        CompletableFuture<?>[] started;
+
+        synchronized (this) {
+            started = tasks.toArray(new CompletableFuture<?>[0]);
+        }
+        CompletableFuture.allOf(started).join();
+    }
+
+    // returns how much of the loading is done, from 0 to 1
+    public synchronized double getProgress() {
+        if (tasks.isEmpty()) {
+            return 1;
+        }
+        return (double) finished.get() / tasks.size();
+    }
+
+    // stops the loader's threads once the tasks already started have finished
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
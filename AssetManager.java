@@ -0,0 +1,393 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class manages every image the game loads, keyed by its resource path. Each image is
+ * reached through a handle that loads it the first time it is needed. Code that needs an image for a while
+ * (a screen, or an attack pattern) acquires the handle and releases it when done. Released images stay
+ * cached in case they are needed again, but only up to a memory budget: past that the least recently used
+ * ones are evicted and reloaded the next time someone asks for them. This way screen-only images such as
+ * the win and lose screens don't stay in memory during a battle. It is safe to use from any thread.
+ * Images are converted to the screen's own pixel format when they load, so drawing them is a plain copy
+ * instead of a conversion on every frame.
+ */
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Toolkit;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+public class AssetManager {
+    private static final long DEFAULT_BUDGET = 4L * 1024 * 1024; // bytes of released images kept cached
+
+    // a handle to one image. get() loads it if it isn't loaded or was evicted
+    public static class Handle<T extends Image> {
+        private AssetManager manager;
+        private String path;
+        private Function<String, T> reader;
+        private volatile T asset;
+        private boolean missing = false; // failed to load, so it isn't retried
+        private int references = 0;
+        private long bytes = 0;
+
+        private Handle(AssetManager manager, String path, Function<String, T> reader) {
+            this.manager = manager;
+            this.path = path;
+            this.reader = reader;
+        }
+
+        // returns the image, loading it first if needed. returns null if it can't be loaded
+        public T get() {
+            T image;
+
+            image = asset;
+            if (image != null) {
+                manager.touch(this);
+                return image;
+            }
+            return manager.load(this);
+        }
+
+        // returns the image if it is loaded, without ever loading it (for drawing while it loads elsewhere)
+        public T getIfLoaded() {
+            return asset;
+        }
+
+        // marks the image as in use, so it is never evicted
+        public void acquire() {
+            manager.acquire(this);
+        }
+
+        // marks the image as no longer used by the caller, it can be evicted once nobody else uses it
+        public void release() {
+            manager.release(this);
+        }
+
+        // returns the resource path of the image
+        public String getPath() {
+            return path;
+        }
+    }
+
+    // every handle, kept in least recently used order
+    private LinkedHashMap<String, Handle<?>> handles = new LinkedHashMap<>(32, 0.75f, true);
+    private long budget;
+    private long loadedBytes = 0;
+    private int evictionCount = 0;
+
+    private static GraphicsConfiguration screen; // the screen's configuration, null when headless
+    private static boolean screenChecked = false;
+
+    // creates a manager with the default memory budget
+    public AssetManager() {
+        this(DEFAULT_BUDGET);
+    }
+
+    // creates a manager that keeps at most the given number of bytes of released images
+    public AssetManager(long budget) {
+        this.budget = budget;
+    }
+
+    // returns the handle of an image, it isn't loaded until get() is called
+    public Handle<BufferedImage> image(String path) {
+        return handle(path, AssetManager::readImage);
+    }
+
+    // returns the handle of an animated image (a gif), it isn't loaded until get() is called
+    public Handle<Image> animation(String path) {
+        return handle(path, AssetManager::readAnimation);
+    }
+
+    // returns the existing handle for a path, or creates one
+    @SuppressWarnings("unchecked")
+    private synchronized <T extends Image> Handle<T> handle(String path, Function<String, T> reader) {
+        Handle<?> handle;
+
+        handle = handles.get(path);
+        if (handle == null) {
+            handle = new Handle<>(this, path, reader);
+            handles.put(path, handle);
+        }
+        return (Handle<T>) handle;
+    }
+
+    // returns the image at the given resource path and keeps it loaded for the rest of the game.
+    // used for images that are needed all the time, like the attack patterns' sprites
+    public BufferedImage getImage(String path) {
+        Handle<BufferedImage> handle;
+
+        handle = image(path);
+        synchronized (this) {
+            // a permanent image only ever holds one reference
+            if (handle.references == 0) {
+                handle.references = 1;
+            }
+        }
+        return handle.get();
+    }
+
+    // loads the given images ahead of time and keeps them loaded
+    public void preload(String... paths) {
+        for (String path : paths) {
+            getImage(path);
+        }
+    }
+
+    // loads a handle's image. the reading happens outside the lock, so different images load in parallel
+    private <T extends Image> T load(Handle<T> handle) {
+        T image;
+
+        synchronized (this) {
+            if (handle.asset != null || handle.missing) {
+                return handle.asset;
+            }
+        }
+        image = handle.reader.apply(handle.path);
+
+        synchronized (this) {
+            if (handle.asset != null) {
+                return handle.asset; // another thread loaded it first
+            }
+            if (image == null) {
+                // missing images are remembered too, so they are only reported once
+                handle.missing = true;
+                return null;
+            }
+            handle.asset = image;
+            handle.bytes = getBytes(image);
+            loadedBytes += handle.bytes;
+            handles.get(handle.path); // mark it as the most recently used
+            evict();
+            return image;
+        }
+    }
+
+    // marks a handle as the most recently used
+    private synchronized void touch(Handle<?> handle) {
+        handles.get(handle.path);
+    }
+
+    // adds a reference to a handle
+    private synchronized void acquire(Handle<?> handle) {
+        handle.references++;
+        handles.get(handle.path);
+    }
+
+    // removes a reference from a handle, and evicts images if that puts the released images over the budget
+    private synchronized void release(Handle<?> handle) {
+        if (handle.references > 0) {
+            handle.references--;
+        }
+        evict();
+    }
+
+    // evicts released images, least recently used first, until the released images fit in the budget
+    private void evict() {
+        Iterator<Handle<?>> it;
+        Handle<?> handle;
+        long cached = 0;
+
+        for (Handle<?> h : handles.values()) {
+            if (h.references == 0 && h.asset != null) {
+                cached += h.bytes;
+            }
+        }
+
+        it = handles.values().iterator();
+        while (cached > budget && it.hasNext()) {
+            handle = it.next();
+            if (handle.references == 0 && handle.asset != null) {
+                handle.asset.flush();
+                handle.asset = null;
+                cached -= handle.bytes;
+                loadedBytes -= handle.bytes;
+                handle.bytes = 0;
+                evictionCount++;
+            }
+        }
+    }
+
+    // returns how much memory a decoded image uses. buffered images are measured from their pixel data,
+    // other images are estimated at 4 bytes a pixel
+    public static long getBytes(Image image) {
+        DataBuffer data;
+
+        if (image instanceof BufferedImage) {
+            data = ((BufferedImage) image).getRaster().getDataBuffer();
+            return (long) data.getSize() * data.getNumBanks() * DataBuffer.getDataTypeSize(data.getDataType()) / 8;
+        }
+        return Math.max(0, (long) image.getWidth(null) * image.getHeight(null) * 4);
+    }
+
+    // returns the screen's graphics configuration, or null when there is no screen
+    private static synchronized GraphicsConfiguration getScreen() {
+        if (!screenChecked) {
+            screenChecked = true;
+            if (!GraphicsEnvironment.isHeadless()) {
+                screen = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+            }
+        }
+        return screen;
+    }
+
+    // creates an empty image in the screen's pixel format (or plain ARGB/RGB without a screen)
+    public static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        GraphicsConfiguration config;
+
+        config = getScreen();
+        if (config != null) {
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height,
+                transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+
+    // returns the image in the screen's pixel format. images that are already in it are returned as they are,
+    // others (such as the byte-ordered ABGR images ImageIO makes from PNGs) are copied once
+    public static BufferedImage toCompatible(BufferedImage image) {
+        GraphicsConfiguration config;
+        BufferedImage compatible;
+        Graphics2D g2d;
+
+        config = getScreen();
+        if (config != null ? image.getColorModel().equals(config.getColorModel(image.getTransparency()))
+                : image.getType() == BufferedImage.TYPE_INT_ARGB || image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        compatible = createCompatibleImage(image.getWidth(), image.getHeight(), image.getTransparency());
+        g2d = compatible.createGraphics();
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return compatible;
+    }
+
+    // returns a smoothly scaled copy of an image in the screen's pixel format. the original isn't kept
+    public static BufferedImage scale(BufferedImage image, int width, int height) {
+        Image tmp;
+        BufferedImage scaled;
+        Graphics2D g2d;
+
+        // area averaging looks much better than bilinear filtering when shrinking a large image
+        tmp = image.getScaledInstance(width, height, Image.SCALE_SMOOTH);
+        scaled = createCompatibleImage(width, height, image.getTransparency());
+        g2d = scaled.createGraphics();
+        g2d.drawImage(tmp, 0, 0, null);
+        g2d.dispose();
+        tmp.flush();
+        return scaled;
+    }
+
+    // reads an image from the asset archive or the resources folder in the screen's pixel format, or returns
+    // null if it can't be read
+    public static BufferedImage readImage(String path) {
+        AssetArchive archive;
+
+        try {
+            archive = AssetArchive.get();
+            if (archive != null && archive.contains(path)) {
+                return toCompatible(archive.readImage(path));
+            }
+            return toCompatible(ImageIO.read(AssetManager.class.getResource(path)));
+        } catch (Exception e) {
+            System.err.println("Failed to load image " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // reads an animated image from the asset archive or the resources folder, or returns null if it can't be read
+    private static Image readAnimation(String path) {
+        AssetArchive archive;
+        ImageIcon icon;
+
+        try {
+            archive = AssetArchive.get();
+            // createImage instead of getImage, the toolkit's shared copy couldn't be loaded again after an eviction
+            if (archive != null && archive.contains(path)) {
+                icon = new ImageIcon(Toolkit.getDefaultToolkit().createImage(archive.readBytes(path)));
+            } else {
+                icon = new ImageIcon(Toolkit.getDefaultToolkit().createImage(AssetManager.class.getResource(path)));
+            }
+            return icon.getIconWidth() > 0 ? icon.getImage() : null;
+        } catch (Exception e) {
+            System.err.println("Failed to load image " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // checks if an image is loaded right now
+    public synchronized boolean isLoaded(String path) {
+        Handle<?> handle;
+
+        handle = handles.get(path);
+        return handle != null && handle.asset != null;
+    }
+
+    // returns the number of images loaded right now
+    public synchronized int size() {
+        int count = 0;
+
+        for (Handle<?> handle : handles.values()) {
+            if (handle.asset != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // returns how many bytes of decoded images are loaded right now
+    public synchronized long getLoadedBytes() {
+        return loadedBytes;
+    }
+
+    // returns a short report of the loaded images, for checking that memory follows the current screen
+    public synchronized String getReport() {
+        long cached = 0;
+
+        for (Handle<?> handle : handles.values()) {
+            if (handle.references == 0 && handle.asset != null) {
+                cached += handle.bytes;
+            }
+        }
+        return String.format("Images: %d loaded (%d KB), %d KB of them released and cached (budget %d KB), %d evicted so far",
+                size(), loadedBytes / 1024, cached / 1024, budget / 1024, evictionCount);
+    }
+
+    // returns one line per loaded image with its size and memory, largest first
+    public synchronized String getAssetReport() {
+        StringBuilder report;
+        ArrayList<Handle<?>> loaded;
+
+        loaded = new ArrayList<>();
+        for (Handle<?> handle : handles.values()) {
+            if (handle.asset != null) {
+                loaded.add(handle);
+            }
+        }
+        loaded.sort((a, b) -> Long.compare(b.bytes, a.bytes));
+
+        report = new StringBuilder();
+        for (Handle<?> handle : loaded) {
+            report.append(String.format("  %-28s %4dx%-4d %6d KB  %s%n", handle.path, handle.asset.getWidth(null),
+                    handle.asset.getHeight(null), handle.bytes / 1024, handle.references > 0 ? "in use" : "cached"));
+        }
+        return report.toString();
+    }
+
+    // unloads every image, after this every handle loads its image again when asked
+    public synchronized void clear() {
+        for (Handle<?> handle : handles.values()) {
+            handle.asset = null;
+            handle.bytes = 0;
+            handle.missing = false;
+        }
+        loadedBytes = 0;
+    }
+}
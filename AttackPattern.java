@@ -2,10 +2,20 @@
  * Author: Michael Zhang and Bryan Yao
  * Date: 2025-01-16
  * Description: This abstract class defines the structure for attack patterns in the game.
+ * Patterns only spawn bullets and move their own hazards, the GamePanel moves and collides everything.
  */
+import java.awt.Graphics;
+import java.awt.Rectangle;
+
 public abstract class AttackPattern {
     protected GamePanel panel; // GamePanel where the AttackPattern is executed
     protected boolean finished = false;
+    protected int liveBullets = 0; // bullets spawned by this pattern that are still on screen
+
+    // the battle box, cycle and stress multiplier the pattern was last prepared for
+    private Rectangle preparedBox;
+    private int preparedCycle;
+    private int preparedMultiplier;
 
     // constructor for an AttackPattern with the specified GamePanel
     public AttackPattern(GamePanel panel) {
@@ -17,7 +27,83 @@ public abstract class AttackPattern {
         return finished;
     }
 
-    // setups the attack pattern and all of its respective variables
+    // returns the shape of the battle area used while this attack pattern runs
+    public Arena.Shape getArenaShape() {
+        return Arena.Shape.RECTANGLE;
+    }
+
+    // returns how many live objects the pattern manages itself (besides the panel's bullets)
+    public int getEntityCount() {
+        return 0;
+    }
+
+    // returns the damage the pattern's own hazards (lasers, pillars, ...) deal to the player's hitbox, or 0
+    public int getHazardDamage(Rectangle playerRect) {
+        return 0;
+    }
+
+    // draws the pattern's own hazards, bullets are drawn by the GamePanel
+    public void drawAttack(Graphics g) {
+    }
+
+    // called by the GamePanel when one of this pattern's bullets is spawned
+    public void bulletSpawned() {
+        liveBullets++;
+    }
+
+    // called by the GamePanel when one of this pattern's bullets is removed
+    public void bulletRemoved() {
+        liveBullets--;
+    }
+
+    // forgets every bullet of this pattern, used when the bullet list is cleared
+    public void resetBulletCount() {
+        liveBullets = 0;
+    }
+
+    // puts the pattern back into its starting state for a new game, without loading anything again
+    public void reset() {
+        finished = false;
+        liveBullets = 0;
+    }
+
+    // releases anything the pattern holds on to, called once the game is closed
+    public void dispose() {
+    }
+
+    // builds whatever the next initialize() needs (obstacles, images) ahead of time and decodes the pattern's
+    // sound effects, so none of them is dropped the first time it plays. this runs on a background thread
+    // while the dialog is showing, so it must not touch the panel's lists
+    public final void prepare(Rectangle box, int cycle, int multiplier) {
+        prepareLayout(box, cycle, multiplier);
+        for (String sound : getSoundPaths()) {
+            SoundEffects.preload(sound);
+        }
+        preparedBox = new Rectangle(box);
+        preparedCycle = cycle;
+        preparedMultiplier = multiplier;
+    }
+
+    // overridden by patterns that have something to build ahead of time
+    protected void prepareLayout(Rectangle box, int cycle, int multiplier) {
+    }
+
+    // checks if the prepared layout was built for the current box and difficulty. it can only be used once
+    protected boolean usePrepared(Rectangle box) {
+        boolean matches;
+
+        matches = preparedBox != null && preparedBox.equals(box)
+            && preparedCycle == panel.getCycleCount() && preparedMultiplier == panel.getSpawnMultiplier();
+        preparedBox = null;
+        return matches;
+    }
+
+    // returns the sound effects the pattern plays, so they can be loaded before it starts
+    public String[] getSoundPaths() {
+        return new String[0];
+    }
+
+    // setups the attack pattern and all of its respective variables for one phase
     public abstract void initialize();
 
     // executes the attack pattern, contains logic on how to perform the attack
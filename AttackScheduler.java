@@ -0,0 +1,177 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class schedules the boss's attack phases. A phase is one or more attack patterns
+ * that run at the same time (for example lasers layered with random projectiles). The patterns only
+ * spawn bullets and move their own hazards, the GamePanel then updates and collides everything once
+ * per tick no matter how many patterns are active.
+ */
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+
+public class AttackScheduler {
+    private ArrayList<AttackPattern[]> phases = new ArrayList<>();
+    private ArrayList<AttackPattern> patterns = new ArrayList<>(); // every pattern used by any phase, once
+    private int currentPhase = 0; // tracks which phase is active
+
+    // removes every phase
+    public void clear() {
+        phases.clear();
+        patterns.clear();
+        currentPhase = 0;
+    }
+
+    // adds a phase made of the given patterns, which all run at the same time
+    public void addPhase(AttackPattern... layers) {
+        phases.add(layers);
+        for (AttackPattern pattern : layers) {
+            if (!patterns.contains(pattern)) {
+                patterns.add(pattern);
+            }
+        }
+    }
+
+    // resets every pattern and goes back to the first phase for a new game
+    public void reset() {
+        for (AttackPattern pattern : patterns) {
+            pattern.reset();
+        }
+        currentPhase = 0;
+    }
+
+    // disposes every pattern, after this the scheduler can't be used anymore
+    public void dispose() {
+        for (AttackPattern pattern : patterns) {
+            pattern.dispose();
+        }
+        clear();
+    }
+
+    // returns the patterns of the current phase
+    public AttackPattern[] getActive() {
+        if (currentPhase < phases.size()) {
+            return phases.get(currentPhase);
+        }
+        return new AttackPattern[0];
+    }
+
+    // initializes every pattern of the current phase
+    public void startPhase() {
+        for (AttackPattern pattern : getActive()) {
+            pattern.initialize();
+        }
+        // patterns clear the bullet list when they start, so none of their bullets are alive
+        for (AttackPattern pattern : getActive()) {
+            pattern.resetBulletCount();
+        }
+    }
+
+    // runs every pattern of the current phase that hasn't finished yet
+    public void execute() {
+        for (AttackPattern pattern : getActive()) {
+            if (!pattern.isFinished()) {
+                pattern.execute();
+            }
+        }
+    }
+
+    // checks if every pattern of the current phase has finished
+    public boolean isPhaseFinished() {
+        for (AttackPattern pattern : getActive()) {
+            if (!pattern.isFinished()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // moves on to the next phase, returns true if it wrapped around to the first phase
+    public boolean advance() {
+        currentPhase++;
+        if (currentPhase >= phases.size()) {
+            currentPhase = 0;
+            return true;
+        }
+        return false;
+    }
+
+    // returns the highest damage any running pattern's hazards deal to the given hitbox this tick
+    public int getHazardDamage(Rectangle playerRect) {
+        int damage = 0;
+
+        for (AttackPattern pattern : getActive()) {
+            if (!pattern.isFinished()) {
+                damage = Math.max(damage, pattern.getHazardDamage(playerRect));
+            }
+        }
+        return damage;
+    }
+
+    // draws the hazards of every running pattern
+    public void drawAttack(Graphics g) {
+        for (AttackPattern pattern : getActive()) {
+            if (!pattern.isFinished()) {
+                pattern.drawAttack(g);
+            }
+        }
+    }
+
+    // checks if a pattern of the given type is running in the current phase
+    public boolean isActive(Class<? extends AttackPattern> type) {
+        for (AttackPattern pattern : getActive()) {
+            if (type.isInstance(pattern) && !pattern.isFinished()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // returns the arena shape of the current phase, the first pattern decides it
+    public Arena.Shape getArenaShape() {
+        AttackPattern[] active = getActive();
+
+        if (active.length == 0) {
+            return Arena.Shape.RECTANGLE;
+        }
+        return active[0].getArenaShape();
+    }
+
+    // returns how many live objects the patterns of the current phase manage themselves
+    public int getEntityCount() {
+        int count = 0;
+
+        for (AttackPattern pattern : getActive()) {
+            count += pattern.getEntityCount();
+        }
+        return count;
+    }
+
+    // returns the name of a phase, made from the names of its patterns
+    public String getPhaseName(int index) {
+        String name = "";
+
+        for (AttackPattern pattern : phases.get(index)) {
+            if (!name.isEmpty()) {
+                name += "+";
+            }
+            name += pattern.getClass().getSimpleName();
+        }
+        return name;
+    }
+
+    // returns the number of phases
+    public int getPhaseCount() {
+        return phases.size();
+    }
+
+    // returns the index of the current phase
+    public int getCurrentPhase() {
+        return currentPhase;
+    }
+
+    // sets which phase is active
+    public void setCurrentPhase(int index) {
+        currentPhase = index;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class is the game clock that attack patterns time themselves with. While the mixer is
+ * running it follows the number of frames the audio line has actually played, so a pattern that plays a
+ * charge sound and fires when it ends stays in step with what is heard. Between the line's position
+ * updates the clock moves with the system timer and is pulled back onto the audio at every update. If the
+ * audio falls more than one mixer buffer behind (an underrun) the clock keeps moving and the time lost is
+ * skipped over, so the clock never goes backwards or freezes.
+ * The clock also keeps the beat grid of the music that is playing, so patterns can time their spawns on
+ * the beat. A sound posted now is only heard once the audio already waiting in the line has played, so
+ * getLatencyMillis() tells patterns how early to post a sound that should land on a beat.
+ * Without an audio device it just follows the system timer.
+ */
+public class AudioClock {
+    private static final double MAX_DRIFT_MILLIS = AudioMixer.BUFFER_FRAMES * 1000.0 / AudioMixer.SAMPLE_RATE;
+
+    private long lastFrames = -1; // the line's position at the last update, -1 before the mixer runs
+    private long lastUpdateNanos; // when the line's position last changed
+    private double audioMillis = 0; // the clock time at the last update
+    private long lastTime = 0; // the last time returned, so the clock never goes backwards
+
+    private double beatMillis = 0; // the length of a beat, 0 when the music has no beat grid
+    private double beatOrigin = 0; // the clock time of beat 0
+
+    // starts the clock at 0
+    public AudioClock() {
+        lastUpdateNanos = System.nanoTime();
+    }
+
+    // returns the current time in milliseconds, called from the event thread
+    public long millis() {
+        long now;
+        long frames;
+        double predicted;
+        double played;
+        long time;
+
+        now = System.nanoTime();
+        frames = SoundEffects.getPlayedFrames();
+        predicted = audioMillis + (now - lastUpdateNanos) / 1e6;
+
+        if (frames >= 0 && frames != lastFrames) {
+            if (lastFrames < 0) {
+                // the mixer just started, continue from the time so far
+                played = predicted;
+            } else {
+                played = audioMillis + (frames - lastFrames) * 1000.0 / AudioMixer.SAMPLE_RATE;
+                // small differences come from the timer and the line updating at different rates, so the
+                // audio position is trusted. a larger gap behind means the audio stalled, so that time is skipped
+                if (played < predicted - MAX_DRIFT_MILLIS) {
+                    played = predicted;
+                }
+            }
+            lastFrames = frames;
+            lastUpdateNanos = now;
+            audioMillis = played;
+            predicted = played;
+        } else if (frames < 0 && lastFrames >= 0) {
+            // the mixer was closed, carry on with the system timer
+            lastFrames = -1;
+        }
+
+        time = Math.max(lastTime, (long) predicted);
+        lastTime = time;
+        return time;
+    }
+
+    // lines the beat grid up with a track that was just posted to the mixer, or turns it off if bpm is 0.
+    // the track is mixed into the next buffer and heard once the audio already in the line has played
+    public void setTempo(double bpm) {
+        if (bpm <= 0) {
+            beatMillis = 0;
+            return;
+        }
+        beatMillis = 60000.0 / bpm;
+        beatOrigin = millis() + getLatencyMillis();
+    }
+
+    // returns the clock time of the given beat of the music
+    public long beatAt(long beat) {
+        return (long) (beatOrigin + beat * beatMillis);
+    }
+
+    // returns the time of the first beat at or after the given time, or the time itself without a beat grid
+    public long nextBeat(long time) {
+        if (beatMillis == 0) {
+            return time;
+        }
+        return beatAt((long) Math.ceil((time - beatOrigin) / beatMillis));
+    }
+
+    // returns how long a sound posted now takes to be heard: the audio waiting in the line to be played
+    public long getLatencyMillis() {
+        return SoundEffects.getQueuedFrames() * 1000L / AudioMixer.SAMPLE_RATE;
+    }
+}
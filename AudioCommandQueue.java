@@ -0,0 +1,84 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class is a lock-free queue of audio commands from the game to the audio thread. The
+ * event thread (key presses, the game timer and state changes) is the only producer and the mixer thread
+ * is the only consumer, so each side only ever writes its own index and no locks are needed. Commands are
+ * stored in preallocated arrays, so posting one is a few array writes and never blocks or allocates.
+ */
+public class AudioCommandQueue {
+    // the kinds of commands
+    public static final int PLAY_EFFECT = 0;
+    public static final int PLAY_MUSIC = 1;
+    public static final int STOP_EFFECTS = 2;
+
+    private static final int CAPACITY = 256; // must be a power of two
+
+    // runs a command on the audio thread
+    public interface Handler {
+        void handle(int type, String name, float pan, float gain, boolean flag);
+    }
+
+    // the commands, stored as parallel arrays
+    private int[] types = new int[CAPACITY];
+    private String[] names = new String[CAPACITY];
+    private float[] pans = new float[CAPACITY];
+    private float[] gains = new float[CAPACITY];
+    private boolean[] flags = new boolean[CAPACITY];
+
+    private volatile long head = 0; // next command to run, only written by the consumer
+    private volatile long tail = 0; // next free slot, only written by the producer
+    private int droppedCount = 0;
+
+    private Handler handler;
+
+    // creates an empty queue whose commands are run by the given handler
+    public AudioCommandQueue(Handler handler) {
+        this.handler = handler;
+    }
+
+    // adds a command, returns false (dropping it) if the audio thread has fallen a whole queue behind
+    public boolean post(int type, String name, float pan, float gain, boolean flag) {
+        long t;
+        int slot;
+
+        t = tail;
+        if (t - head >= CAPACITY) {
+            droppedCount++;
+            return false;
+        }
+        slot = (int) (t & (CAPACITY - 1));
+        types[slot] = type;
+        names[slot] = name;
+        pans[slot] = pan;
+        gains[slot] = gain;
+        flags[slot] = flag;
+        tail = t + 1; // publishing the new tail makes the command visible to the consumer
+        return true;
+    }
+
+    // runs every command that has been posted, called by the audio thread
+    public void drain() {
+        long h;
+        int slot;
+
+        h = head;
+        while (h < tail) {
+            slot = (int) (h & (CAPACITY - 1));
+            handler.handle(types[slot], names[slot], pans[slot], gains[slot], flags[slot]);
+            names[slot] = null;
+            h++;
+            head = h;
+        }
+    }
+
+    // returns how many commands are waiting
+    public int size() {
+        return (int) (tail - head);
+    }
+
+    // returns how many commands were dropped because the queue was full
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class is a small real-time software mixer. One thread mixes up to MAX_VOICES voices
+ * of cached mono PCM, each with its own gain and pan, and writes the result to a single SourceDataLine. The
+ * music and every sound effect share it, so no matter how many effects play at once only one audio line
+ * is open. When every voice is busy, the voice with the lowest priority (the oldest one on a tie) is
+ * stolen. Every buffer costs the same amount of work, and latency is bounded by the line's buffer size.
+ * Music isn't a voice, it is streamed from a MusicStream, and changing tracks crossfades the old one out.
+ */
+import java.util.Arrays;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.SourceDataLine;
+
+public class AudioMixer implements Runnable {
+    // the format of the audio line and the streamed music. effects are stored as 16-bit mono at the
+    // same rate and placed in the stereo mix by their pan, so they never need converting at play time
+    public static final int SAMPLE_RATE = 44100;
+    public static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+
+    // voice priorities, higher priorities steal voices from lower ones
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_HIGH = 2;
+
+    private static final int MAX_VOICES = 16;
+    public static final int BUFFER_FRAMES = 512; // about 12 ms of sound per mixed buffer
+    private static final int LINE_BUFFERS = 4; // buffers the line holds, so latency stays under about 50 ms
+
+    private SourceDataLine line;
+    private Thread thread;
+    private volatile boolean running = false;
+
+    // voices stored as parallel arrays. samples are mono shorts at SAMPLE_RATE
+    private final Object lock = new Object();
+    private short[][] samples = new short[MAX_VOICES][];
+    private int[] position = new int[MAX_VOICES]; // index of the next sample to mix
+    private float[] leftGain = new float[MAX_VOICES];
+    private float[] rightGain = new float[MAX_VOICES];
+    private int[] priority = new int[MAX_VOICES];
+    private boolean[] looping = new boolean[MAX_VOICES];
+    private int[] voiceId = new int[MAX_VOICES]; // 0 means the voice is free
+    private long[] startOrder = new long[MAX_VOICES];
+    private int nextId = 1;
+    private long playCount = 0;
+
+    // the streamed music, and the track fading out after a change
+    private MusicStream music;
+    private MusicStream fadingMusic;
+    private float musicGain = 1;
+    private float fadingGain = 1;
+    private int fadeBuffers = 0; // how many buffers the crossfade lasts
+    private int fadeStep = 0; // how many buffers of the crossfade have been mixed
+
+    private AudioCommandQueue commands; // commands from the game, run before every buffer
+
+    // statistics
+    private int stolenCount = 0;
+    private int droppedCount = 0;
+
+    // buffers reused for every mix
+    private int[] mix = new int[BUFFER_FRAMES * 2];
+    private byte[] output = new byte[BUFFER_FRAMES * 4];
+
+    // opens the audio line and starts the mixer thread, returns false if there is no audio device.
+    // the mixer thread runs the commands posted to the given queue
+    public boolean start(AudioCommandQueue queue) {
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, output.length * LINE_BUFFERS);
+            line.start();
+        } catch (Exception e) {
+            System.out.println("Error opening the audio line:" + e.getMessage());
+            line = null;
+            return false;
+        }
+
+        commands = queue;
+        running = true;
+        thread = new Thread(this, "audio-mixer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+        return true;
+    }
+
+    // starts a voice and returns its id, or 0 if every voice is busy with something more important
+    public int play(short[] data, float gain, float pan, int voicePriority, boolean loop) {
+        int slot;
+
+        if (data == null || data.length == 0) {
+            return 0;
+        }
+        synchronized (lock) {
+            slot = findSlot(voicePriority);
+            if (slot < 0) {
+                droppedCount++;
+                return 0;
+            }
+            samples[slot] = data;
+            position[slot] = 0;
+            setPan(slot, gain, pan);
+            priority[slot] = voicePriority;
+            looping[slot] = loop;
+            voiceId[slot] = nextId++;
+            startOrder[slot] = playCount++;
+            return voiceId[slot];
+        }
+    }
+
+    // finds a free voice, or the lowest priority (then oldest) voice that may be stolen, or -1
+    private int findSlot(int voicePriority) {
+        int victim = -1;
+
+        for (int i = 0; i < MAX_VOICES; i++) {
+            if (voiceId[i] == 0) {
+                return i;
+            }
+            if (victim < 0 || priority[i] < priority[victim]
+                    || (priority[i] == priority[victim] && startOrder[i] < startOrder[victim])) {
+                victim = i;
+            }
+        }
+        if (priority[victim] > voicePriority) {
+            return -1;
+        }
+        stolenCount++;
+        return victim;
+    }
+
+    // works out the gain of each channel, pan goes from -1 (left) to 1 (right)
+    private void setPan(int slot, float gain, float pan) {
+        pan = Math.max(-1f, Math.min(1f, pan));
+        leftGain[slot] = gain * Math.min(1f, 1f - pan);
+        rightGain[slot] = gain * Math.min(1f, 1f + pan);
+    }
+
+    // changes the gain and pan of a playing voice
+    public void setGain(int id, float gain, float pan) {
+        synchronized (lock) {
+            for (int i = 0; i < MAX_VOICES; i++) {
+                if (voiceId[i] == id && id != 0) {
+                    setPan(i, gain, pan);
+                }
+            }
+        }
+    }
+
+    // stops a voice
+    public void stop(int id) {
+        synchronized (lock) {
+            for (int i = 0; i < MAX_VOICES; i++) {
+                if (voiceId[i] == id && id != 0) {
+                    release(i);
+                }
+            }
+        }
+    }
+
+    // stops every voice, the music keeps playing
+    public void stopAll() {
+        synchronized (lock) {
+            for (int i = 0; i < MAX_VOICES; i++) {
+                release(i);
+            }
+        }
+    }
+
+    // switches to a new music track (or to silence if it is null), crossfading over the given time
+    public void playMusic(MusicStream stream, float gain, int fadeMillis) {
+        MusicStream old;
+
+        synchronized (lock) {
+            old = fadingMusic;
+            fadingMusic = music;
+            fadingGain = musicGain;
+            music = stream;
+            musicGain = gain;
+            fadeBuffers = Math.max(1, fadeMillis * SAMPLE_RATE / 1000 / BUFFER_FRAMES);
+            fadeStep = 0;
+        }
+        // a track that was still fading out from an earlier change is cut off
+        if (old != null) {
+            old.close();
+        }
+    }
+
+    // frees a voice
+    private void release(int slot) {
+        voiceId[slot] = 0;
+        samples[slot] = null;
+    }
+
+    // the mixer thread: runs the game's commands, then mixes one buffer and writes it to the line,
+    // which blocks while full
+    public void run() {
+        while (running) {
+            commands.drain();
+            synchronized (lock) {
+                mixBuffer();
+            }
+            line.write(output, 0, output.length);
+        }
+    }
+
+    // adds every active voice into the mix buffer and converts it to bytes
+    private void mixBuffer() {
+        short[] data;
+        int pos;
+        int value;
+        float lg;
+        float rg;
+
+        Arrays.fill(mix, 0);
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceId[v] == 0) {
+                continue;
+            }
+            data = samples[v];
+            pos = position[v];
+            lg = leftGain[v];
+            rg = rightGain[v];
+            for (int i = 0; i < mix.length; i += 2) {
+                if (pos >= data.length) {
+                    if (!looping[v]) {
+                        release(v);
+                        break;
+                    }
+                    pos = 0;
+                }
+                mix[i] += (int) (data[pos] * lg);
+                mix[i + 1] += (int) (data[pos] * rg);
+                pos++;
+            }
+            position[v] = pos;
+        }
+
+        mixMusic();
+
+        // clamp the sum to 16 bits and write it out little-endian
+        for (int i = 0; i < mix.length; i++) {
+            value = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+            output[i * 2] = (byte) value;
+            output[i * 2 + 1] = (byte) (value >> 8);
+        }
+    }
+
+    // adds the music to the mix, fading the new track in and the old track out during a crossfade
+    private void mixMusic() {
+        float fade;
+
+        fade = Math.min(1f, (float) fadeStep / fadeBuffers);
+        if (fadeStep < fadeBuffers) {
+            fadeStep++;
+        }
+        if (music != null) {
+            music.mixInto(mix, musicGain * fade, musicGain * fade);
+            if (music.isFinished()) {
+                music.close();
+                music = null;
+            }
+        }
+        if (fadingMusic != null) {
+            if (fade >= 1) {
+                fadingMusic.close();
+                fadingMusic = null;
+            } else {
+                fadingMusic.mixInto(mix, fadingGain * (1 - fade), fadingGain * (1 - fade));
+            }
+        }
+    }
+
+    // converts 16-bit signed little-endian PCM of any rate and channel count into mono at SAMPLE_RATE
+    public static short[] convert(byte[] pcm, AudioFormat format) {
+        int channels;
+        int frames;
+        int outFrames;
+        short[] result;
+        double step;
+        double src;
+        int index;
+        double frac;
+
+        channels = format.getChannels();
+        frames = pcm.length / (2 * channels);
+        step = format.getSampleRate() / SAMPLE_RATE;
+        outFrames = (int) (frames / step);
+        result = new short[outFrames];
+
+        // linear interpolation between the two closest source frames
+        for (int f = 0; f < outFrames; f++) {
+            src = f * step;
+            index = (int) src;
+            frac = src - index;
+            result[f] = (short) (frameAt(pcm, index, channels, frames) * (1 - frac) + frameAt(pcm, index + 1, channels, frames) * frac);
+        }
+        return result;
+    }
+
+    // reads one frame, averaging its channels into one sample
+    private static int frameAt(byte[] pcm, int frame, int channels, int frames) {
+        int offset;
+        int sum = 0;
+
+        if (frame >= frames) {
+            frame = frames - 1;
+        }
+        offset = frame * channels * 2;
+        for (int c = 0; c < channels; c++) {
+            sum += (short) ((pcm[offset + c * 2] & 0xff) | (pcm[offset + c * 2 + 1] << 8));
+        }
+        return sum / channels;
+    }
+
+    // returns how many frames the audio line has played, or -1 if the mixer isn't running
+    public long getPlayedFrames() {
+        if (line == null || !running) {
+            return -1;
+        }
+        return line.getLongFramePosition();
+    }
+
+    // returns how many frames have been written to the audio line but not played yet, which is how long a
+    // sound mixed now waits before it is heard. 0 if the mixer isn't running
+    public int getQueuedFrames() {
+        if (line == null || !running) {
+            return 0;
+        }
+        return (line.getBufferSize() - line.available()) / FORMAT.getFrameSize();
+    }
+
+    // returns how many voices are playing
+    public int getActiveVoices() {
+        int count = 0;
+
+        synchronized (lock) {
+            for (int i = 0; i < MAX_VOICES; i++) {
+                if (voiceId[i] != 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // returns how many voices have been stolen for more important sounds
+    public int getStolenCount() {
+        return stolenCount;
+    }
+
+    // returns how many sounds couldn't play because every voice was more important
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+
+    // stops the mixer thread and closes the line
+    public void close() {
+        running = false;
+        // switching to silence twice closes both the playing and the fading track
+        playMusic(null, 0, 0);
+        playMusic(null, 0, 0);
+        if (thread != null) {
+            try {
+                thread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (line != null) {
+            line.stop();
+            line.close();
+        }
+    }
+}
@@ -14,6 +14,7 @@ public class Boss{
     private String name;
     private Rectangle rect;
     private BufferedImage image;
+    private SpriteAtlas.Sprite sprite; // the atlas sprite of the image, looked up again only when the size changes
 
     // constructor to initialize the Boss with specified attributes
     public Boss(String name, int maxHP, BufferedImage image, int x, int y, int width, int height) {
@@ -99,6 +100,11 @@ public class Boss{
 
     // draws the boss's image
     public void drawImage(Graphics g, int width, int height) {
-        g.drawImage(image, rect.x, rect.y, rect.width, rect.height, null);
+        if (sprite == null || sprite.getWidth() != rect.width || sprite.getHeight() != rect.height) {
+            sprite = SpriteAtlas.get(image, rect.width, rect.height);
+        }
+        if (sprite != null) {
+            sprite.draw(g, rect.x, rect.y);
+        }
     }
 }
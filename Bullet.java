@@ -13,7 +13,10 @@ public class Bullet {
     public int speedX, speedY;
     private int damage;
     private Color color;
-    private Image bulletImage;
+    private SpriteAtlas.Sprite bulletSprite;
+    private boolean near = false; // whether the bullet has come inside the player's graze ring
+    private boolean grazed = false; // whether the player has already grazed this bullet
+    private AttackPattern owner; // the attack pattern that spawned the bullet, if any
 
     // constructor for a Bullet with equal width and height based on the size parameter.
     public Bullet(int x, int y, int size, int speedX, int speedY, int damage, Image bulletImage, Color color) {
@@ -30,7 +33,8 @@ public class Bullet {
         this.speedX = speedX;
         this.speedY = speedY;
         this.damage = damage;
-        this.bulletImage = bulletImage;
+        // the sprite is looked up once here, so drawing it every frame is a plain copy from the atlas
+        this.bulletSprite = SpriteAtlas.get(bulletImage, imageWidth, imageHeight);
         this.color = color;
     }
 
@@ -42,8 +46,8 @@ public class Bullet {
 
     // draws the bullet's image on the screen
     public void draw(Graphics g, Component observer) {
-        if(bulletImage != null){
-            g.drawImage(bulletImage, x - imageWidth / 2, y - imageHeight / 2, imageWidth, imageHeight, observer);
+        if(bulletSprite != null){
+            bulletSprite.draw(g, x - imageWidth / 2, y - imageHeight / 2);
         } else {
             g.setColor(color);
             g.fillRect(x - imageWidth/2, y - imageHeight/2, imageWidth, imageHeight);
@@ -60,8 +64,49 @@ public class Bullet {
         return new Rectangle(x - size / 2, y - size / 2, size, size);
     }
 
+    // checks if the bullet overlaps the given rectangle, without creating a new Rectangle
+    public boolean intersects(Rectangle r) {
+        return x - size / 2 < r.x + r.width && x - size / 2 + size > r.x
+            && y - size / 2 < r.y + r.height && y - size / 2 + size > r.y;
+    }
+
+    // returns the attack pattern that spawned the bullet
+    public AttackPattern getOwner() {
+        return owner;
+    }
+
+    // sets the attack pattern that spawned the bullet
+    public void setOwner(AttackPattern owner) {
+        this.owner = owner;
+    }
+
     // returns the damage value of the bullet
     public int getDamage() {
         return damage;
     }
+
+    // returns the collision size of the bullet
+    public int getSize() {
+        return size;
+    }
+
+    // checks if the bullet has already been counted as a graze
+    public boolean isGrazed() {
+        return grazed;
+    }
+
+    // marks the bullet as grazed so it only counts once
+    public void markGrazed() {
+        grazed = true;
+    }
+
+    // checks if the bullet has come close to the player, a graze is only counted once it leaves again
+    public boolean isNear() {
+        return near;
+    }
+
+    // marks the bullet as having come close to the player
+    public void markNear() {
+        near = true;
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class works out how hard the attack patterns are for a given cycle count. Instead of
+ * patterns changing their own variables every time they start, each value is calculated from a base
+ * value (first cycle) and a hard value (second cycle) using a curve that keeps rising slowly after that
+ * but never goes past a cap, so even very long runs stay playable. Values that get smaller as the game gets
+ * harder (like warning times) never go below their hard value.
+ */
+public class Difficulty {
+    // the curve never goes past this many times the gap between the base and hard values
+    private static final double MAX_SCALE = 2.0;
+
+    // returns how far along the curve the given cycle is: 0 for the first cycle, 1 for the second,
+    // then halfway closer to MAX_SCALE with every cycle after that
+    public static double curve(int cycle) {
+        if (cycle <= 0) {
+            return 0;
+        }
+        return MAX_SCALE * (1 - Math.pow(1 - 1 / MAX_SCALE, cycle));
+    }
+
+    // returns a whole number value for the given cycle between the base and hard values
+    public static int value(int base, int hard, int cycle) {
+        return (int) Math.round(value((double) base, (double) hard, cycle));
+    }
+
+    // returns a decimal value for the given cycle between the base and hard values. values that go up
+    // (counts, speeds, damage) keep rising along the curve, but values that go down (warning times, spawn
+    // intervals) stop at the hard value, otherwise they would head towards 0 and the attack couldn't be dodged
+    public static double value(double base, double hard, int cycle) {
+        double value;
+
+        value = base + (hard - base) * curve(cycle);
+        if (hard < base) {
+            value = Math.max(value, hard);
+        }
+        return value;
+    }
+}
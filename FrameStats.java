@@ -0,0 +1,116 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class records how long each frame takes to update and to draw, along with how many
+ * bullets were alive, and works out percentiles from them. It is used by the stress test to build a
+ * report of how each attack pattern scales.
+ */
+import java.util.Arrays;
+
+public class FrameStats {
+    private long[] tickNanos;
+    private long[] paintNanos;
+    private int[] liveCounts;
+    private int count = 0;
+    private int next = 0; // once full, the oldest frame is overwritten
+
+    // constructor for FrameStats that keeps up to the given number of frames
+    public FrameStats(int capacity) {
+        tickNanos = new long[capacity];
+        paintNanos = new long[capacity];
+        liveCounts = new int[capacity];
+    }
+
+    // records one frame
+    public void record(long tick, long paint, int live) {
+        tickNanos[next] = tick;
+        paintNanos[next] = paint;
+        liveCounts[next] = live;
+        next = (next + 1) % tickNanos.length;
+        if (count < tickNanos.length) {
+            count++;
+        }
+    }
+
+    // removes all recorded frames
+    public void clear() {
+        count = 0;
+        next = 0;
+    }
+
+    // returns the number of recorded frames
+    public int getCount() {
+        return count;
+    }
+
+    // returns the given percentile (0 to 100) of the update time in milliseconds
+    public double tickPercentile(double p) {
+        return percentile(tickNanos, null, p);
+    }
+
+    // returns the given percentile (0 to 100) of the draw time in milliseconds
+    public double paintPercentile(double p) {
+        return percentile(paintNanos, null, p);
+    }
+
+    // returns the given percentile (0 to 100) of the whole frame time (update + draw) in milliseconds
+    public double framePercentile(double p) {
+        return percentile(tickNanos, paintNanos, p);
+    }
+
+    // sorts a copy of the recorded values (optionally adding a second array) and picks the percentile
+    private double percentile(long[] values, long[] extra, double p) {
+        long[] sorted;
+        int index;
+
+        if (count == 0) {
+            return 0;
+        }
+        sorted = Arrays.copyOf(values, count);
+        if (extra != null) {
+            for (int i = 0; i < count; i++) {
+                sorted[i] += extra[i];
+            }
+        }
+        Arrays.sort(sorted);
+        index = (int) Math.ceil(p / 100.0 * count) - 1;
+        index = Math.max(0, Math.min(count - 1, index));
+        return sorted[index] / 1e6;
+    }
+
+    // returns the average number of live bullets
+    public double averageLive() {
+        long total = 0;
+
+        if (count == 0) {
+            return 0;
+        }
+        for (int i = 0; i < count; i++) {
+            total += liveCounts[i];
+        }
+        return (double) total / count;
+    }
+
+    // returns the highest number of live bullets
+    public int maxLive() {
+        int max = 0;
+
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, liveCounts[i]);
+        }
+        return max;
+    }
+
+    // returns the header line of the report
+    public static String header() {
+        return String.format("%-42s %5s %9s %9s %9s %9s %10s %10s %10s",
+                "pattern", "mult", "live avg", "live max", "tick p50", "tick p99", "paint p50", "paint p99", "frame p99");
+    }
+
+    // returns one line of the report for the recorded frames
+    public String formatRow(String pattern, int multiplier) {
+        return String.format("%-42s %4dx %9.0f %9d %9.3f %9.3f %10.3f %10.3f %10.3f",
+                pattern, multiplier, averageLive(), maxLive(), tickPercentile(50), tickPercentile(99),
+                paintPercentile(50), paintPercentile(99), framePercentile(99));
+    }
+}
@@ -5,11 +5,18 @@
  * including adding the GamePanel, setting the title, size and default behaviours.
  */
 import javax.swing.JFrame;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 public class GameFrame extends JFrame {
     private GamePanel gamePanel;
 
     public GameFrame() {
+        this(false);
+    }
+
+    // creates the frame, optionally warming up the JIT behind a loading screen before the main menu
+    public GameFrame(boolean warmup) {
         gamePanel = new GamePanel();
         this.add(gamePanel); // add the panel to the frame
         this.setTitle("Greb's Game"); // create a new GamePanel instance
@@ -18,5 +25,19 @@ public class GameFrame extends JFrame {
         this.setResizable(false); // disable resizing of the frame
         this.setVisible(true); // makes window visible to user
         this.setLocationRelativeTo(null); // center the frame on the screen
+
+        // release the game's resources before the application exits
+        this.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                gamePanel.dispose();
+                SpriteAtlas.clear();
+                SoundEffects.closeAll();
+            }
+        });
+
+        if (warmup) {
+            gamePanel.startWarmup();
+        }
     }
 }
@@ -7,18 +7,16 @@
 * playing sounds. The class ensures smooth gameplay by processing keyboard events, updating 
 * animations, and managing resources like images and audio.
 */
-import javax.imageio.ImageIO;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.ArrayList;
-import java.io.File;
-import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.io.InputStream;
 import java.awt.image.BufferedImage;
 
@@ -36,60 +34,54 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     WIN,
     LOSE,
     INSTRUCTIONS,
-    SETTINGS
+    SETTINGS,
+    LOADING
     }
 
     // variables for the text of different difficulties the player can use
-    private String[] difficulties = {"EASY", "HARD", "CHEAT"};
+    private String[] difficulties = {"EASY", "HARD", "CHEAT", "ENDLESS"};
     private String[] difficultyDescription = {
         "Easy Mode (300 HP) - Great for beginners!",
         "Hard Mode (100 HP) - A Challenge!",
-        "Mr. Anthony Mode - A MILLION HP."
+        "Mr. Anthony Mode - A MILLION HP.",
+        "Endless Mode (100 HP) - Survive as long as you can!"
     };
 
     // track which difficulty is being used
     private int difficultyIdx = 0;
     // the HP values for each mode
-    private int[] difficultyHP = {300, 100, 1000000};
+    private int[] difficultyHP = {300, 100, 1000000, 100};
 
     // keeps track of the current state of the game
-    private State currentState = State.MAIN_MENU;
-
-    // image fields used for drawing various UI elements, background, boss, player, etc
-    private BufferedImage exclamationImage;
-    private BufferedImage bossImage;
-    private BufferedImage playerImage; 
-    private BufferedImage flashImage;  
-    private BufferedImage backgroundImage;
-    private BufferedImage jetImage;
-    private BufferedImage jetFlashImage;
-    private Image fightButtonImage;
-    private Image actButtonImage;
-    private Image itemButtonImage;
-    private Image mercyButtonImage;
-    private Image fightHoverImage;
-    private Image actHoverImage;
-    private Image itemHoverImage;
-    private Image mercyHoverImage;
-    private Image fightBarImage;
-    private Image cursorImage;
-    private Image bulletImage;
-    private Image homingImage;
-    private Image laserImage;
-    private Image laserWarningImage;
-    private Image winImage;
-    private Image loseImage;
-
-    // variables for scaled images to avoid rescaling every frame, reduce lag
-    private Image fightButtonScaled;
-    private Image fightHoverScaled;
-    private Image actButtonScaled;
-    private Image actHoverScaled;
-    private Image itemButtonScaled;
-    private Image itemHoverScaled;
-    private Image mercyButtonScaled;
-    private Image mercyHoverScaled;
-    private Image backgroundScaled;
+    private State currentState = State.LOADING;
+
+    // image fields used for drawing various UI elements, background, boss, player, etc. they are assigned on the
+    // asset loader's threads and read on the event thread, so they are volatile
+    private volatile BufferedImage bossImage;
+    private volatile BufferedImage playerImage; 
+    private volatile BufferedImage flashImage;  
+    private volatile BufferedImage jetImage;
+    private volatile BufferedImage jetFlashImage;
+    private volatile Image bulletImage;
+    private volatile Image homingImage;
+    private volatile Image laserImage;
+    private volatile Image laserWarningImage;
+
+    // sprites in the sprite atlas, already scaled to their size so they are never rescaled while drawing
+    private volatile SpriteAtlas.Sprite exclamationImage;
+    private volatile SpriteAtlas.Sprite fightBarImage;
+    private volatile SpriteAtlas.Sprite cursorImage;
+    private volatile SpriteAtlas.Sprite fightButtonScaled;
+    private volatile SpriteAtlas.Sprite fightHoverScaled;
+    private volatile SpriteAtlas.Sprite actButtonScaled;
+    private volatile SpriteAtlas.Sprite actHoverScaled;
+    private volatile SpriteAtlas.Sprite itemButtonScaled;
+    private volatile SpriteAtlas.Sprite itemHoverScaled;
+    private volatile SpriteAtlas.Sprite mercyButtonScaled;
+    private volatile SpriteAtlas.Sprite mercyHoverScaled;
+
+    // the background scaled to the panel, only the scaled copy is kept
+    private BufferedImage backgroundScaled;
 
     // Strings to store the label of menu options for the main "battle" menu
     private final String[] MENUOPTIONS = {"FIGHT", "ACT", "ITEM", "QUIT"};
@@ -104,13 +96,19 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     private Boss boss;
 
     // fonts used throughout the game for dialogs, menus, etc.
-    private Font customFont;
+    private volatile Font customFont; // read on the asset loader, so it is volatile like the images
     private Font dialogFont = new Font("Monospaced", Font.PLAIN, 32);
     private Font menuFont = new Font("Monospaced", Font.BOLD, 36);
     private Font uiFont = new Font("Monospaced", Font.PLAIN, 28);
 
-    // variables for kirby animation
-    private Image kirbyImage;     
+    // the other sizes of the fonts above, derived once in setFonts instead of on every paint
+    private Font titleFont; // main menu title
+    private Font smallMenuFont; // credits and navigation prompts
+    private Font boldUiFont; // damage popup, item title and survival time
+    private Font hudFont; // graze counter and endless timer
+    private Font statsFont; // stress test stats
+    private Font settingsTitleFont;
+    private Font settingsFont;
 
     // variable that holds the text that appears in the dialog box
     private String dialogText = "";
@@ -130,20 +128,80 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     private int damagePopupX;
     private int damagePopupY;
 
+    // on screens that only change when something happens (menus, dialog, instructions), only the parts that
+    // changed are repainted at the end of a tick. null when nothing changed
+    private Rectangle dirtyRegion = null;
+
     // variables for tracking movement keys for the player (arrow keys)
     private boolean upPressed;
     private boolean downPressed;
     private boolean leftPressed;
     private boolean rightPressed;
 
-    // a list of AttackPatterns (boss phases/patterns). The boss cycles through them.
-    private ArrayList<AttackPattern> attackPatterns = new ArrayList<>();
-    private int currentAttackPattern = 0; // tracks which pattern is active
+    // images shared by the panel and the attack patterns, each one is only read from disk once
+    private AssetManager assets = new AssetManager();
+
+    // images only one screen uses (the kirby animation, win and lose screens). they are acquired when
+    // their screen is shown and released when it is left, so they can be evicted during the battle
+    private AssetManager.Handle<Image> kirbyImage = assets.animation("/Images/kirby.gif");
+    private AssetManager.Handle<BufferedImage> winImage = assets.image("/Images/win.png");
+    private AssetManager.Handle<BufferedImage> loseImage = assets.image("/Images/lose.png");
+    private static final int KIRBY_SIZE = 350; // the kirby animation is drawn as a square this big
+
+    // the full size background is only needed to make the scaled copy, so it is left to the asset manager,
+    // which lets it go and reads it again if the panel is ever resized
+    private AssetManager.Handle<BufferedImage> backgroundImage = assets.image("/Images/background.png");
+
+    // the boss's attack phases, each made of one or more AttackPatterns. The boss cycles through them.
+    private AttackScheduler scheduler = new AttackScheduler();
 
     // variables for rectangles representing the hitboxes for the battle area and bottom UI box
     private Rectangle battleBox;
     private Rectangle bottomBox;
 
+    // the shape of the battle area inside the battle box. arenas are cached by shape and size so
+    // switching between menus and attacks never rebuilds their tables. the next attack's arena can be
+    // built on the prewarm thread, so the cache is a concurrent map
+    private Arena arena;
+    private ConcurrentHashMap<String, Arena> arenaCache = new ConcurrentHashMap<>();
+
+    // the parts of the battle screen that rarely change (background, boss, HP bars and battle box) are
+    // kept in one layer and only redrawn when what they show changes. these remember what it last showed
+    private StaticLayer battleLayer = new StaticLayer(this::drawBattleLayer);
+    private BufferedImage layerBackground;
+    private Font layerFont;
+    private Boss layerBoss;
+    private Player layerPlayer;
+    private Rectangle layerBox;
+    private Arena layerArena;
+    private int layerBossHP;
+    private int layerPlayerHP;
+    private int layerPlayerMaxHP;
+
+    // size of the battle box while the boss attacks
+    private static final int ATTACK_BOX_WIDTH = 600;
+    private static final int ATTACK_BOX_HEIGHT = 400;
+
+    // the boss sits in the upper center, and the battle box always starts a small gap below it
+    private static final int BOSS_WIDTH = 150;
+    private static final int BOSS_HEIGHT = 150;
+    private static final int BOSS_Y = 50;
+    private static final int BOSS_BOX_GAP = 10;
+    private static final int BATTLE_BOX_Y = BOSS_Y + BOSS_HEIGHT + BOSS_BOX_GAP;
+
+    // the size of the player's heart and hitbox
+    private static final int PLAYER_SIZE = 25;
+
+    // the next attack phase is prepared on this thread while the dialog is showing, so starting it
+    // doesn't hitch. the key remembers which phase, cycle, multiplier and box were prepared
+    private ExecutorService prewarmExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "attack-prewarm");
+        t.setDaemon(true);
+        return t;
+    });
+    private Future<?> prewarmTask;
+    private String prewarmKey = "";
+
     // lists of bullets (boss bullets and player bullets)
     private ArrayList<Bullet> bullets = new ArrayList<>();
     private ArrayList<Bullet> playerBullets = new ArrayList<>();
@@ -157,6 +215,8 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     private HomingProjectileAttack hpa;
     private VerticalLaserAttack vla;
     private GunnerAttack ga;
+    private SwarmAttack sa;
+    private RotatingBeamAttack rba;
 
     // variables for exclamation mark usage (for homing warnings, etc.)
     private boolean showExclamationMark = false;
@@ -181,20 +241,82 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     // temporary flag to indicate if the player has a boosted damage effect
     private boolean tempDamageBoostActive = false;
 
-    // music player variable
-    public static Clip clip;
-    public static Clip effectClip;
+    // variables for endless survival mode, where attacks run back to back until the player dies
+    private long survivalStartTime = 0;
+    private long survivalTime = 0;
+
+    // in endless mode, limits live bullets and throttles spawning when frames take longer than the budget
+    private static final int MAX_LIVE_BULLETS = 500;
+    private static final double FRAME_BUDGET_MS = 10.0;
+    private SpawnGovernor spawnGovernor = new SpawnGovernor(MAX_LIVE_BULLETS, FRAME_BUDGET_MS);
+    private long lastPaintNanos = 0;
+
+    // turns all sound on or off
+    private static boolean soundEnabled = true;
+
+    // prints the memory and warm-up reports and the stress table after each phase ("--report" or "--stress")
+    private static boolean reportsEnabled = false;
+
+    // sound effects used by the menus and the player, decoded on the prewarm thread at startup
+    private static final String[] COMMON_SOUNDS = {
+        "Sounds/buttonselect.wav", "Sounds/buttonswitch.wav", "Sounds/click.wav", "Sounds/hover.wav",
+        "Sounds/damagetaken.wav", "Sounds/playerbullet.wav", "Sounds/slash.wav"
+    };
+
+    // variables for the stress test: how many times more bullets patterns spawn, and the frame times
+    private static final int[] STRESS_MULTIPLIERS = {1, 2, 4, 8, 16, 32};
+    private int spawnMultiplier = 1;
+    private FrameStats stressStats = new FrameStats(2000);
+
+    // variables for headless sessions, which advance their own clock by one tick at a time
+    private boolean headless = false;
+    private long gameTime = 0;
+
+    // the clock attack patterns use in a normal game, it follows the audio so sounds and attacks line up
+    private AudioClock audioClock = new AudioClock();
+    private int stressPattern = 0;
+
+    // the optional JIT warm-up that runs behind the loading screen before the main menu
+    private JitWarmup warmup;
+
+    // variables for loading the assets in the background behind the loading screen
+    private AssetLoader loader;
+    private CompletableFuture<Void> menuAssets;
+    private CompletableFuture<Void> battleAssets;
+    private CompletableFuture<?>[] soundAssets;
+    private boolean assetsLoaded = false;
+    private boolean startWhenLoaded = false; // the player pressed start before the battle had loaded
 
     // constructor for the gamepnael, sets up various listeners, initializes timer, fonts, images, etc
     public GamePanel() {
+        this(true);
+    }
+
+    // constructor for the gamepanel. a panel that isn't interactive has no timer, listeners or music, and is
+    // used to run attack patterns headlessly (stress test)
+    private GamePanel(boolean interactive) {
         // set up the panel's appearance
         setBackground(Color.BLACK);
         setFocusable(true);
-        addKeyListener(this);
         setDoubleBuffered(true);
+        setFonts(); // the default fonts until the custom one has loaded
 
         // timer for updates
         gameTimer = new Timer(15, this);
+        headless = !interactive;
+        if (headless) {
+            setSize(1400, 800);
+            loader = new AssetLoader();
+            CompletableFuture.allOf(loadMenuResources(loader), loadResources(loader)).join();
+            loader.shutdown();
+            setFonts();
+            scaleBackground();
+            initializeLayout();
+            createEntities();
+            initializeAttackPatterns();
+            return;
+        }
+        addKeyListener(this);
         gameTimer.start();
 
         // resizes or sets up the game layout when the panel is shown or resized
@@ -206,270 +328,244 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
 
             @Override
             public void componentResized(ComponentEvent e) {
-                // re-scale the background one time here (rather than per frame)
-                if (backgroundImage != null && getWidth() > 0 && getHeight() > 0) {
-                    backgroundScaled = backgroundImage.getScaledInstance(getWidth(), getHeight(), Image.SCALE_SMOOTH);
+                // re-scale the background one time here (rather than per frame). until the battle has
+                // loaded, finishLoading scales it instead
+                if (assetsLoaded) {
+                    scaleBackground();
                 }
                 initializeLayout();
             }
         });
 
-        // load the custom font and set the fonts
-        loadCustomFont();
-        setFonts();
-
-        // load images, resources, sound, etc.
-        loadResourcesInConstructor();
-        initializeLayout();
-        createEntities();
-        initializeAttackPatterns();
+        // load the fonts, images and sound effects in parallel behind the loading screen. the main menu
+        // shows as soon as its own font and animation are in, the battle is set up once everything is
+        loader = new AssetLoader();
+        menuAssets = loadMenuResources(loader);
+        battleAssets = loadResources(loader);
+        loader.whenLoaded(this::showMainMenu, menuAssets);
+        loader.whenLoaded(this::finishLoading, menuAssets, battleAssets);
         playMusic("Sounds/menumusic.wav");
 
+        // open the audio line and decode the common sound effects on the loader too, so neither stalls
+        // the first frame or keypress. the music posted above starts once the mixer is running
+        soundAssets = new CompletableFuture<?>[COMMON_SOUNDS.length + 1];
+        soundAssets[0] = loader.load(SoundEffects::start);
+        for (int i = 0; i < COMMON_SOUNDS.length; i++) {
+            soundAssets[i + 1] = loader.load(preloadSound(COMMON_SOUNDS[i]));
+        }
+        if (reportsEnabled) {
+            loader.whenLoaded(() -> System.out.println(SoundEffects.getMemoryReport()), soundAssets);
+        }
+
         // the initial text in the dialog
         dialogText = "YOU ENCOUNTERED GREBORY ANTONY.";
 
-        setCurrentState(State.MAIN_MENU);
+        setCurrentState(State.LOADING);
     }
 
-    // utility method to resize a BufferedImage (e.g., for scaling down/up images).
-    private BufferedImage resizeImage(BufferedImage originalImage, int targetWidth, int targetHeight) {
-        Image tmp;
-        BufferedImage resized;
-        Graphics g2d;
-
-        // create a temporary scaled instance
-        tmp = originalImage.getScaledInstance(targetWidth, targetHeight, Image.SCALE_SMOOTH);
-        resized = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_ARGB);
-
-        g2d = resized.createGraphics();
-        g2d.drawImage(tmp, 0, 0, null);
-        g2d.dispose();
-        return resized;
+    // leaves the main menu and starts the boss encounter
+    private void startIntro() {
+        setCurrentState(State.INTRO);
+        playSoundEffect("Sounds/buttonselect.wav");
+        playMusic("Sounds/fightmusic.wav");
+        dialogText = "YOU ENCOUNTERED GREBORY ANTONY.";
     }
 
-    // plays music in a loop, at a certain volume, sourced from https://www.geeksforgeeks.org/play-audio-file-using-java/
-    public static void playMusic(String track) {
-        File audioFile;
-        AudioInputStream audioStream;
-
-        // ensure music is stopped
-        if (clip != null) {
-            if (clip.isRunning()) {
-                clip.stop(); // stop the currently playing clip
-            }
-            clip.close(); // close the clip to free resources
-            clip = null; // set clip to null to indicate it's not in use
-        }
-
-        try {
-            // specify the path to the audio file
-            audioFile = new File(track);
-            // create an AudioInputStream object from the audio file
-            audioStream = AudioSystem.getAudioInputStream(audioFile);
-            // get a clip resource
-            clip = AudioSystem.getClip(); // assign the new clip to the class-level variable
-            // open the audio stream for playback
-            clip.open(audioStream);
-            // loop the clip indefinitely
-            clip.loop(Clip.LOOP_CONTINUOUSLY);
-            // start playing the audio
-            clip.start();
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            System.err.println("Error playing the audio file: " + e.getMessage());
-        }
-    }
-
-    // plays the sound effect
-    public static void playSoundEffect(String file){
-        File soundFile;
-        AudioInputStream audioInput;
-        Clip clip;
-        try {
-            soundFile = new File(file);  // specify the path to the audio file
-            audioInput = AudioSystem.getAudioInputStream(soundFile);
-            clip = AudioSystem.getClip();
-            clip.open(audioInput); // open the audio stream for playback
-            clip.start(); // start playing the audio
-            effectClip = clip;
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            System.out.println("Error playing sound file:" + e.getMessage());
-        }
-    }
-
-    // loads images and other resources used in the game (buttons, background, etc.).
-    private void loadResourcesInConstructor() {
-        // variables for temporary loading of the images
-        Image tempImage;
-        Image tempCursor;
-        ImageIcon kirbyIcon;
-        BufferedImage originalPlayerImage;
-        BufferedImage originalFlashImage;
-        BufferedImage originalBulletImage;
-        BufferedImage originalJet;
-        BufferedImage originalJetFlash;
-
-        // fight bar
-        try {
-            tempImage = ImageIO.read(getClass().getResource("/Images/attackbar.png"));
-            fightBarImage = tempImage;
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        // cursor (used in the fight bar timing minigame)
-        try {
-            tempCursor = ImageIO.read(getClass().getResource("/Images/attackcursor.gif"));
-            cursorImage = tempCursor;
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        // exclamation mark (used for warnings like homing attacks)
-        try {
-            exclamationImage = ImageIO.read(getClass().getResource("/Images/exclamation.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        // kirby animation for the main menu
-        try {
-            kirbyIcon = new ImageIcon(getClass().getResource("/Images/kirby.gif"));
-            kirbyImage = kirbyIcon.getImage();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        // boss image
-        try {
-            bossImage = ImageIO.read(getClass().getResource("/Images/mranthony.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        // win screen image
-        try {
-            winImage = ImageIO.read(getClass().getResource("/Images/win.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        // lose screen image
-        try {
-            loseImage = ImageIO.read(getClass().getResource("/Images/lose.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        // player's normal heart image
-        try {
-            originalPlayerImage = ImageIO.read(getClass().getResource("/Images/heart.png"));
-            playerImage = resizeImage(originalPlayerImage, 25, 25);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        // player's flash heart (used for a "hit" or "flash" animation)
-        try {
-            originalFlashImage = ImageIO.read(getClass().getResource("/Images/whiteheart.png"));
-            flashImage = resizeImage(originalFlashImage, 25, 25);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        // background image
-        try {
-            backgroundImage = ImageIO.read(getClass().getResource("/Images/background.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    // returns a task that decodes a sound effect
+    private static Runnable preloadSound(String sound) {
+        return () -> SoundEffects.preload(sound);
+    }
 
-        // basic bullet image (fireball)
-        try {
-            originalBulletImage = ImageIO.read(getClass().getResource("/Images/fireball.png"));
-            bulletImage = resizeImage(originalBulletImage, 15, 15);
-        } catch (Exception e) {
-            e.printStackTrace();
+    // shows the main menu once its assets have loaded, unless the warm-up or a game start is still waiting
+    private void showMainMenu() {
+        setFonts();
+        if (currentState == State.LOADING && warmup == null && !startWhenLoaded) {
+            setCurrentState(State.MAIN_MENU);
         }
+    }
 
-        // homing bullet image
-        try {
-            homingImage = ImageIO.read(getClass().getResource("/Images/homingbullet.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
+    // sets up the battle once every image has loaded
+    private void finishLoading() {
+        // the background is scaled here, on the event thread, to the size the panel has by now
+        scaleBackground();
+        initializeLayout();
+        createEntities();
+        initializeAttackPatterns();
+        loader.shutdown();
+        assetsLoaded = true;
+        if (reportsEnabled) {
+            System.out.print(getImageMemoryReport());
         }
 
-        // laser image
-        try {
-            laserImage = ImageIO.read(getClass().getResource("/Images/laser.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
+        // the player pressed start while the battle was still loading
+        if (startWhenLoaded) {
+            startWhenLoaded = false;
+            startIntro();
         }
+    }
 
-        // laser warning image
-        try {
-            laserWarningImage = ImageIO.read(getClass().getResource("/Images/laserstart.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    // utility method to resize a BufferedImage (e.g., for scaling down/up images). the copy is in the
+    // screen's pixel format, and the original can be dropped afterwards
+    private BufferedImage resizeImage(BufferedImage originalImage, int targetWidth, int targetHeight) {
+        return AssetManager.scale(originalImage, targetWidth, targetHeight);
+    }
 
-        // button & hover images for FIGHT
-        try {
-            fightButtonImage = ImageIO.read(getClass().getResource("/Images/fight.png"));
-            fightHoverImage = ImageIO.read(getClass().getResource("/Images/fight_hover.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    // scales the background to the size of the panel, unless it already is. only called on the event thread
+    // (or by a headless session once loading is done), so it never races a resize
+    private void scaleBackground() {
+        BufferedImage original;
+        int width;
+        int height;
 
-        // button & hover images for ACT
-        try {
-            actButtonImage = ImageIO.read(getClass().getResource("/Images/act.png"));
-            actHoverImage = ImageIO.read(getClass().getResource("/Images/act_hover.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
+        width = getWidth();
+        height = getHeight();
+        if (width <= 0 || height <= 0
+                || (backgroundScaled != null && backgroundScaled.getWidth() == width && backgroundScaled.getHeight() == height)) {
+            return;
         }
-
-        // button & hover images for ITEM
-        try {
-            itemButtonImage = ImageIO.read(getClass().getResource("/Images/item.png"));
-            itemHoverImage = ImageIO.read(getClass().getResource("/Images/item_hover.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
+        original = backgroundImage.get();
+        if (original != null) {
+            backgroundScaled = resizeImage(original, width, height);
         }
+    }
 
-        // button & hover images for MERCY
-        try {
-            mercyButtonImage = ImageIO.read(getClass().getResource("/Images/mercy.png"));
-            mercyHoverImage = ImageIO.read(getClass().getResource("/Images/mercy_hover.png"));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    // plays music in a loop, crossfading from the track that is playing
+    public void playMusic(String track) {
+        playMusic(track, true);
+    }
 
-        // jet & jet flash images
-        try {
-            originalJet = ImageIO.read(getClass().getResource("/Images/jet.png"));
-            jetImage = resizeImage(originalJet, 25, 25);
-            originalJetFlash = ImageIO.read(getClass().getResource("/Images/whitejet.png"));
-            jetFlashImage = resizeImage(originalJetFlash, 25, 25);
-        } catch (Exception e) {
-            e.printStackTrace();
+    // streams a music track through the shared mixer, crossfading from the track that is playing.
+    // headless sessions are always silent, so they never touch the real game's audio
+    public void playMusic(String track, boolean loop) {
+        if (!soundEnabled || headless) {
+            return;
         }
+        SoundEffects.playMusic(track, loop);
+        audioClock.setTempo(loop ? SoundEffects.getMusicBpm(track) : 0);
+    }
 
-        fightButtonScaled = fightButtonImage.getScaledInstance(200, 80, Image.SCALE_SMOOTH);
-        fightHoverScaled = fightHoverImage.getScaledInstance(200, 80, Image.SCALE_SMOOTH);
-        actButtonScaled = actButtonImage.getScaledInstance(200, 80, Image.SCALE_SMOOTH);
-        actHoverScaled = actHoverImage.getScaledInstance(200, 80, Image.SCALE_SMOOTH);
-        itemButtonScaled = itemButtonImage.getScaledInstance(200, 80, Image.SCALE_SMOOTH);
-        itemHoverScaled = itemHoverImage.getScaledInstance(200, 80, Image.SCALE_SMOOTH);
-        mercyButtonScaled = mercyButtonImage.getScaledInstance(200, 80, Image.SCALE_SMOOTH);
-        mercyHoverScaled = mercyHoverImage.getScaledInstance(200, 80, Image.SCALE_SMOOTH);
+    // plays the sound effect from the decoded sound effect cache, it is posted to the audio thread when the tick ends
+    public void playSoundEffect(String file){
+        playSoundEffect(file, 0);
     }
 
-    // loads a custom font (PixelOperator8-Bold.ttf) from the resources folder, if present.
+    // plays the sound effect panned from -1 (left) to 1 (right), unless this is a headless session
+    public void playSoundEffect(String file, float pan){
+        if (!soundEnabled || headless) {
+            return;
+        }
+        SoundEffects.play(file, pan);
+    }
+
+    // returns the pan of a sound made at the given x position on the screen
+    public float getPan(int x) {
+        return (x - getWidth() / 2f) / (getWidth() / 2f);
+    }
+
+    // turns all music and sound effects on or off (headless runs have no audio device)
+    public static void setSoundEnabled(boolean enabled) {
+        soundEnabled = enabled;
+    }
+
+    // checks if music and sound effects are turned on
+    public static boolean isSoundEnabled() {
+        return soundEnabled;
+    }
+
+    // turns the reports printed to the console on or off
+    public static void setReportsEnabled(boolean enabled) {
+        reportsEnabled = enabled;
+    }
+
+    // creates a panel with no window, timer or music that attack patterns can be run on headlessly
+    public static GamePanel createHeadlessSession() {
+        return new GamePanel(false);
+    }
+
+    // loads what the main menu needs (the font and the kirby animation) on the asset loader
+    private CompletableFuture<Void> loadMenuResources(AssetLoader loader) {
+        return CompletableFuture.allOf(
+            loader.load(this::loadCustomFont),
+            // kirby animation for the main menu
+            loader.load(kirbyImage::get)
+        );
+    }
+
+    // loads images and other resources used in the game (buttons, background, etc.) on the asset loader.
+    // every file is its own task, so they are all decoded in parallel
+    private CompletableFuture<Void> loadResources(AssetLoader loader) {
+        return CompletableFuture.allOf(
+            // fight bar
+            loader.load(() -> fightBarImage = SpriteAtlas.get(AssetManager.readImage("/Images/attackbar.png"))),
+            // cursor (used in the fight bar timing minigame)
+            loader.load(() -> cursorImage = SpriteAtlas.get(AssetManager.readImage("/Images/attackcursor.gif"))),
+            // exclamation mark (used for warnings like homing attacks)
+            loader.load(() -> exclamationImage = SpriteAtlas.get(AssetManager.readImage("/Images/exclamation.png"))),
+            // boss image
+            loader.load(() -> bossImage = AssetManager.readImage("/Images/mranthony.png")),
+            // player's normal heart image and flash heart (used for a "hit" or "flash" animation)
+            loader.load(() -> playerImage = resizeImage(AssetManager.readImage("/Images/heart.png"), 25, 25)),
+            loader.load(() -> flashImage = resizeImage(AssetManager.readImage("/Images/whiteheart.png"), 25, 25)),
+            // background image, only decoded here. it is scaled on the event thread once everything has loaded
+            loader.load(backgroundImage::get),
+            // basic bullet image (fireball), only the small copy is kept
+            loader.load(() -> bulletImage = resizeImage(assets.image("/Images/fireball.png").get(), 15, 15)),
+            // homing bullet, laser and laser warning images
+            loader.load(() -> homingImage = assets.getImage("/Images/homingbullet.png")),
+            loader.load(() -> laserImage = assets.getImage("/Images/laser.png")),
+            loader.load(() -> laserWarningImage = assets.getImage("/Images/laserstart.png")),
+            // images the attack patterns fetch themselves when they are created
+            loader.load(() -> assets.preload("/Images/pipe.png")),
+            // button & hover images for FIGHT, ACT, ITEM and MERCY
+            loader.load(() -> fightButtonScaled = SpriteAtlas.get(AssetManager.readImage("/Images/fight.png"), 200, 80)),
+            loader.load(() -> fightHoverScaled = SpriteAtlas.get(AssetManager.readImage("/Images/fight_hover.png"), 200, 80)),
+            loader.load(() -> actButtonScaled = SpriteAtlas.get(AssetManager.readImage("/Images/act.png"), 200, 80)),
+            loader.load(() -> actHoverScaled = SpriteAtlas.get(AssetManager.readImage("/Images/act_hover.png"), 200, 80)),
+            loader.load(() -> itemButtonScaled = SpriteAtlas.get(AssetManager.readImage("/Images/item.png"), 200, 80)),
+            loader.load(() -> itemHoverScaled = SpriteAtlas.get(AssetManager.readImage("/Images/item_hover.png"), 200, 80)),
+            loader.load(() -> mercyButtonScaled = SpriteAtlas.get(AssetManager.readImage("/Images/mercy.png"), 200, 80)),
+            loader.load(() -> mercyHoverScaled = SpriteAtlas.get(AssetManager.readImage("/Images/mercy_hover.png"), 200, 80)),
+            // jet & jet flash images
+            loader.load(() -> jetImage = resizeImage(AssetManager.readImage("/Images/jet.png"), 25, 25)),
+            loader.load(() -> jetFlashImage = resizeImage(AssetManager.readImage("/Images/whitejet.png"), 25, 25))
+        );
+    }
+
+    // returns how much memory each of the game's images uses: the panel's own images first, then the ones
+    // the asset manager holds
+    public String getImageMemoryReport() {
+        String[] names;
+        Image[] images;
+        StringBuilder report;
+        long bytes;
+        long total = 0;
+
+        names = new String[]{"background (scaled)", "boss", "heart", "heart flash", "jet", "jet flash", "bullet"};
+        images = new Image[]{backgroundScaled, bossImage, playerImage, flashImage, jetImage, jetFlashImage, bulletImage};
+
+        report = new StringBuilder("Image memory:\n");
+        for (int i = 0; i < names.length; i++) {
+            bytes = images[i] != null ? AssetManager.getBytes(images[i]) : 0;
+            total += bytes;
+            report.append(String.format("  %-28s %6d KB%n", names[i], bytes / 1024));
+        }
+        report.append(assets.getAssetReport());
+        report.append(String.format("  panel images %d KB. %s%n", total / 1024, assets.getReport()));
+        report.append("  ").append(SpriteAtlas.getReport()).append("\n");
+        return report.toString();
+    }
+
+    // loads a custom font (PixelOperator8-Bold.ttf) from the asset archive or the resources folder, if present.
     private void loadCustomFont() {
+        AssetArchive archive;
         InputStream fontStream;
 
         try {
-            fontStream = getClass().getResourceAsStream("/PixelOperator8-Bold.ttf");
+            archive = AssetArchive.get();
+            fontStream = archive != null ? archive.open("/PixelOperator8-Bold.ttf") : null;
+            if (fontStream == null) {
+                fontStream = getClass().getResourceAsStream("/PixelOperator8-Bold.ttf");
+            }
             if (fontStream != null) {
                 customFont = Font.createFont(Font.TRUETYPE_FONT, fontStream);
             } else {
@@ -480,18 +576,26 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         }
     }
 
-    // applies the custom font (if loaded). otherwise, leaves the default fonts.
+    // applies the custom font (if loaded), otherwise leaves the default fonts, and derives the other sizes
     private void setFonts() {
         if (customFont != null) {
             dialogFont = customFont.deriveFont(Font.PLAIN, 32f);
             menuFont = customFont.deriveFont(Font.BOLD, 36f);
             uiFont = customFont.deriveFont(Font.PLAIN, 28f);
         }
+        titleFont = menuFont.deriveFont(Font.BOLD, 42f);
+        smallMenuFont = menuFont.deriveFont(Font.PLAIN, 24f);
+        boldUiFont = uiFont.deriveFont(Font.BOLD, 32f);
+        hudFont = uiFont.deriveFont(Font.PLAIN, 20f);
+        statsFont = uiFont.deriveFont(Font.PLAIN, 18f);
+        settingsTitleFont = uiFont.deriveFont(40f);
+        settingsFont = uiFont.deriveFont(26f);
     }
 
-    // initializes the attack pattern list, each pattern is a distinct type of obstacle arrangement
+    // creates the attack phases once, each pattern is a distinct type of obstacle arrangement. a new game
+    // only resets the patterns, so restarting never creates or loads anything again
     private void initializeAttackPatterns() {
-        attackPatterns.clear(); // reset all the attack patterns
+        scheduler.clear(); // reset all the attack phases
 
         // create instances of each pattern
         rpa = new RandomProjectileAttack(this, bulletImage);
@@ -499,21 +603,25 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         hpa = new HomingProjectileAttack(this, homingImage);
         vla = new VerticalLaserAttack(this, laserImage, laserWarningImage);
         ga = new GunnerAttack(this);
+        sa = new SwarmAttack(this);
+        rba = new RotatingBeamAttack(this, laserImage);
 
-        attackPatterns.add(mga);
-        attackPatterns.add(rpa);
-        attackPatterns.add(hpa);
-        attackPatterns.add(vla);
-        attackPatterns.add(ga);
+        scheduler.addPhase(mga);
+        scheduler.addPhase(rpa);
+        scheduler.addPhase(hpa);
+        scheduler.addPhase(vla);
+        scheduler.addPhase(ga);
+        scheduler.addPhase(sa);
+        scheduler.addPhase(rba);
+
+        // the last phase layers the lasers and the random projectiles on top of each other
+        scheduler.addPhase(vla, rpa);
     }
 
     // set up the layout sizes for the boss sprite, the battle box, and the bottom UI box depending on current state
     private void initializeLayout() {
         int panelWidth = getWidth();
-        int bossWidth = 150;
-        int bossHeight = 150;
-        int bossX = (panelWidth - bossWidth) / 2;
-        int bossY = 50;
+        int bossX = (panelWidth - BOSS_WIDTH) / 2;
         int boxWidth;
         int boxHeight;
         int bottomBoxWidth;
@@ -521,13 +629,14 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         int boxX;
         int boxY;
         int bottomBoxY;
+        Arena.Shape arenaShape;
 
         // place the boss in the upper center
         if (boss != null) {
             boss.getRect().x = bossX;
-            boss.getRect().y = bossY;
-            boss.getRect().width = bossWidth;
-            boss.getRect().height = bossHeight;
+            boss.getRect().y = BOSS_Y;
+            boss.getRect().width = BOSS_WIDTH;
+            boss.getRect().height = BOSS_HEIGHT;
         }
 
         // decide the size of the battle box and bottom box based on state
@@ -545,8 +654,8 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
                 break;
 
             case BOSS_ATTACK:
-                boxWidth = 600;
-                boxHeight = 400;
+                boxWidth = ATTACK_BOX_WIDTH;
+                boxHeight = ATTACK_BOX_HEIGHT;
                 bottomBoxWidth = panelWidth - 100;
                 bottomBoxHeight = 140;
                 break;
@@ -560,9 +669,18 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         }
 
         boxX = (panelWidth - boxWidth) / 2;
-        boxY = bossY + bossHeight + 10;
+        boxY = BATTLE_BOX_Y;
         battleBox = new Rectangle(boxX, boxY, boxWidth, boxHeight);
 
+        // attack patterns can ask for a differently shaped arena
+        arenaShape = Arena.Shape.RECTANGLE;
+        if (currentState == State.BOSS_ATTACK) {
+            arenaShape = scheduler.getArenaShape();
+        }
+        if (arena == null || !arena.matches(arenaShape, battleBox)) {
+            arena = getCachedArena(arenaShape, battleBox);
+        }
+
         bottomBoxY = boxY + boxHeight + 110; 
         bottomBox = new Rectangle((panelWidth - bottomBoxWidth) / 2, bottomBoxY, bottomBoxWidth, bottomBoxHeight);
 
@@ -597,15 +715,107 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         }
 
         // create the Player object and configure properties
-        player = new Player(playerX, playerY, 25, 25, difficultyHP[difficultyIdx], playerImage, flashImage, playerImage, flashImage, jetImage, jetFlashImage);
+        player = new Player(playerX, playerY, PLAYER_SIZE, PLAYER_SIZE, difficultyHP[difficultyIdx], playerImage, flashImage, playerImage, flashImage, jetImage, jetFlashImage);
 
         // create the Boss object and configure properties
-        boss = new Boss("GREBBORY ANTONY", 100, bossImage, 0, 0, 150, 150);
+        boss = new Boss("GREBBORY ANTONY", 100, bossImage, 0, 0, BOSS_WIDTH, BOSS_HEIGHT);
 
         // initialize player's inventory (this might add items, potions, etc.)
         player.initializeInventory();
     }
 
+    // shows the loading screen and runs the JIT warm-up on a background thread, then opens the main menu
+    public void startWarmup() {
+        Thread thread;
+
+        warmup = new JitWarmup();
+        setCurrentState(State.LOADING);
+        thread = new Thread(() -> {
+            // the menu opens even if the warm-up fails, it only makes the first cycle smoother
+            try {
+                warmup.run();
+                if (reportsEnabled) {
+                    System.out.println(warmup.getReport());
+                }
+            } finally {
+                SwingUtilities.invokeLater(() -> {
+                    warmup = null;
+                    setCurrentState(State.MAIN_MENU);
+                });
+            }
+        }, "jit-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // returns the arena for a shape and box from the cache, building it the first time. where the player
+    // fits is worked out for the player's hitbox (or the default size before the player is created)
+    private Arena getCachedArena(Arena.Shape shape, Rectangle box) {
+        int fitWidth;
+        int fitHeight;
+
+        fitWidth = player != null ? player.getHitbox().width : PLAYER_SIZE;
+        fitHeight = player != null ? player.getHitbox().height : PLAYER_SIZE;
+        return arenaCache.computeIfAbsent(shape + " " + box + " " + fitWidth + "x" + fitHeight,
+            key -> new Arena(shape, box, fitWidth, fitHeight));
+    }
+
+    // returns the battle box the attacks use (the box is smaller while the menus are showing), placed the
+    // same way initializeLayout places it
+    private Rectangle getAttackBox() {
+        return new Rectangle((getWidth() - ATTACK_BOX_WIDTH) / 2, BATTLE_BOX_Y, ATTACK_BOX_WIDTH, ATTACK_BOX_HEIGHT);
+    }
+
+    // prepares the upcoming attack phase on the prewarm thread: its obstacles and images, its sound
+    // effects and the arena it will use, so the first frame of the attack doesn't hitch
+    private void prewarmNextPhase() {
+        AttackPattern[] next;
+        Rectangle box;
+        Arena.Shape shape;
+        int cycle;
+        int multiplier;
+        String key;
+
+        next = scheduler.getActive();
+        if (next.length == 0 || headless) {
+            return;
+        }
+        box = getAttackBox();
+        shape = scheduler.getArenaShape();
+        cycle = cycleCount;
+        multiplier = spawnMultiplier;
+
+        // only prepare each phase once, even if the dialog is shown several times before it starts
+        key = scheduler.getCurrentPhase() + " " + cycle + " " + multiplier + " " + box;
+        if (key.equals(prewarmKey)) {
+            return;
+        }
+        finishPrewarm();
+        prewarmKey = key;
+
+        prewarmTask = prewarmExecutor.submit(() -> {
+            for (AttackPattern pattern : next) {
+                pattern.prepare(box, cycle, multiplier);
+            }
+            getCachedArena(shape, box);
+        });
+    }
+
+    // waits for the prewarm thread to finish, so a pattern is never used while it is being prepared
+    private void finishPrewarm() {
+        if (prewarmTask == null) {
+            return;
+        }
+        try {
+            prewarmTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+        }
+        prewarmTask = null;
+    }
+
     // resets the game to a fresh state, used after losing/winning or returning to main menu
     private void resetGame() {
         int playerStartX;
@@ -614,11 +824,11 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         playerStartX = battleBox.x + battleBox.width / 2 - 12;
         playerStartY = battleBox.y + battleBox.height / 2 - 12;
 
-        // reset all the variables, creating new instances of all objects and clearing all lists
-        player = new Player(playerStartX, playerStartY, 25, 25, difficultyHP[difficultyIdx], playerImage, flashImage,  playerImage, flashImage, jetImage, jetFlashImage);
+        // reset all the variables, creating new instances of the player and boss and clearing all lists
+        // (the attack patterns are kept and only reset)
+        player = new Player(playerStartX, playerStartY, PLAYER_SIZE, PLAYER_SIZE, difficultyHP[difficultyIdx], playerImage, flashImage,  playerImage, flashImage, jetImage, jetFlashImage);
         player.initializeInventory();
-        boss = new Boss("GREBBORY ANTONY", 100, bossImage, 0, 0, 150, 150);
-        currentAttackPattern = 0;
+        boss = new Boss("GREBBORY ANTONY", 100, bossImage, 0, 0, BOSS_WIDTH, BOSS_HEIGHT);
         dialogText = "YOU ENCOUNTERED GREBBORY ANTONY.".toUpperCase();
         bullets.clear();
         playerBullets.clear();
@@ -626,7 +836,23 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         bossDamageModifier = 1.0f;
         playerDamageModifier = 1.0f;
         cycleCount = 0;
-        initializeAttackPatterns();
+        finishPrewarm();
+        prewarmKey = "";
+        scheduler.reset();
+    }
+
+    // stops the game loop and releases the attack patterns and loaded images. the sound mixer and the sprite
+    // atlas are shared by every panel, so they are closed by the frame when the game exits, not here
+    public void dispose() {
+        gameTimer.stop();
+        if (loader != null) {
+            loader.shutdown();
+        }
+        finishPrewarm();
+        prewarmExecutor.shutdown();
+        scheduler.dispose();
+        battleLayer.dispose();
+        assets.clear();
     }
 
     // allows AttackPatterns to control the exclamation mark for warnings
@@ -641,6 +867,19 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     // paints the entire game scene depending on the current state of the game
     @Override
     protected void paintComponent(Graphics g) {
+        long paintStart = System.nanoTime();
+
+        paintGame(g);
+        lastPaintNanos = System.nanoTime() - paintStart;
+    }
+
+    // draws the current state of the game into any graphics context (used by headless runs)
+    public void renderFrame(Graphics g) {
+        paintGame(g);
+    }
+
+    // draws the current state of the game
+    private void paintGame(Graphics g) {
         State localState;
 
         super.paintComponent(g);
@@ -666,13 +905,18 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             return;
         }
 
-        // draw background
-        g.drawImage(backgroundScaled, 0, 0, this);
+        // draw loading screen
+        if (localState == State.LOADING) {
+            drawLoadingScreen(g);
+            return;
+        }
 
-        // draw common UI (boss HP, etc.) for game states (except the main menu)
-        drawBossUI(g);
-        drawBattleBox(g);
-        drawPlayerHPBar(g);
+        // draw the background and common UI (boss HP, etc.) for game states (except the main menu), redrawing
+        // the layer they are cached in only if something on it changed
+        if (battleLayerChanged()) {
+            battleLayer.invalidate();
+        }
+        battleLayer.draw(g, this, getWidth(), getHeight());
 
         // handle states where player actions or attacks are relevant
         if (localState == State.PLAYER_MENU ||
@@ -685,6 +929,13 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             if (localState == State.BOSS_ATTACK) {
                 player.draw(g);     // draw the player's heart
                 drawBossAttack(g);  // draw bullets, special patterns, etc.
+                drawGrazeCounter(g); // show how many bullets have been grazed
+                if (isEndlessMode()) {
+                    drawSurvivalTime(g);
+                }
+                if (spawnMultiplier > 1) {
+                    drawStressStats(g);
+                }
             }
 
             // draw the main player options (FIGHT, ACT, ITEM, QUIT)
@@ -744,7 +995,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         }
 
         g2d = (Graphics2D) g.create();
-        g2d.drawImage(exclamationImage,exclamationX - exclamationImage.getWidth(this) / 2,exclamationY - exclamationImage.getHeight(this) / 2,this);
+        exclamationImage.draw(g2d, exclamationX - exclamationImage.getWidth() / 2, exclamationY - exclamationImage.getHeight() / 2);
         g2d.dispose();
     }
 
@@ -814,6 +1065,43 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         g2d.dispose();
     }
 
+    // draws the graze counter next to the battle box during boss attacks
+    private void drawGrazeCounter(Graphics g) {
+        String grazeText;
+
+        g.setFont(hudFont);
+        g.setColor(Color.WHITE);
+        grazeText = "GRAZE " + player.getGrazeCount();
+        g.drawString(grazeText, battleBox.x + battleBox.width + 20, battleBox.y + battleBox.height);
+    }
+
+    // draws how long the player has survived in endless mode
+    private void drawSurvivalTime(Graphics g) {
+        String timeText;
+
+        g.setFont(hudFont);
+        g.setColor(Color.WHITE);
+        timeText = "TIME " + formatTime(System.currentTimeMillis() - survivalStartTime) + "  CYCLE " + (cycleCount + 1);
+        g.drawString(timeText, battleBox.x, battleBox.y - 10);
+    }
+
+    // draws the live frame time numbers while playing with a stress test multiplier
+    private void drawStressStats(Graphics g) {
+        String statsText;
+
+        g.setFont(statsFont);
+        g.setColor(Color.YELLOW);
+        statsText = String.format("STRESS %dx  LIVE %d  TICK P99 %.2fMS  PAINT P99 %.2fMS", spawnMultiplier,
+                getLiveCount(), stressStats.tickPercentile(99), stressStats.paintPercentile(99));
+        g.drawString(statsText, 20, getHeight() - 20);
+    }
+
+    // formats a time in milliseconds as minutes and seconds
+    private String formatTime(long millis) {
+        long seconds = millis / 1000;
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
     // draws the main menu with the title, credits, options to start, etc
     private void drawMainMenu(Graphics g) {
         Graphics2D g2d;
@@ -832,7 +1120,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         int creditsX;
         int creditsY;
 
-        int kirbySize; // holds the size of the kirby animation
+        Rectangle kirbyBounds; // where the kirby animation is drawn
 
         // variables for drawing the main menu options
         String[] options;
@@ -846,7 +1134,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         g2d.fillRect(0, 0, getWidth(), getHeight());
         g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
-        g2d.setFont(menuFont.deriveFont(Font.BOLD, 42f));
+        g2d.setFont(titleFont);
         g2d.setColor(Color.WHITE);
 
         // title lines
@@ -862,7 +1150,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         g2d.drawString(line2, line2X, line2Y);
 
         // credits
-        g2d.setFont(menuFont.deriveFont(Font.PLAIN, 24f));
+        g2d.setFont(smallMenuFont);
         fm = g2d.getFontMetrics();
         credits = "By Michael Zhang and Bryan Yao for ICS4U";
         creditsX = getWidth() / 2 - fm.stringWidth(credits) / 2;
@@ -870,13 +1158,13 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         g2d.drawString(credits, creditsX, creditsY);
 
         // drawing the kirby animation on the right side
-        if (kirbyImage != null) {
-            kirbySize = 350;
-            g2d.drawImage(kirbyImage,getWidth() - kirbySize - 70,getHeight() / 3 + 50,kirbySize, kirbySize,this);
+        if (kirbyImage.getIfLoaded() != null) {
+            kirbyBounds = getKirbyBounds();
+            g2d.drawImage(kirbyImage.getIfLoaded(),kirbyBounds.x,kirbyBounds.y,kirbyBounds.width, kirbyBounds.height,this);
         }
 
         // drawing the main menu options
-        g2d.setFont(menuFont.deriveFont(Font.BOLD, 36f));
+        g2d.setFont(menuFont);
         fm = g2d.getFontMetrics();
 
         options = new String[]{"[Z] START", "[I] INSTRUCTIONS", "[S] SETTINGS", "[Q] QUIT"};
@@ -927,6 +1215,9 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             "These bullets will destroy the upcoming \n" + 
             "blue boxes so you can go through the gaps \n" + 
             "in the rectangle without taking damage.\n" +
+            "- Letting bullets pass close to you without\n" +
+            "getting hit (grazing) charges up the damage\n" +
+            "of your next attack.\n" +
             "- When the game starts, you are prompted \n" +
             "with a menu with 4 options: \n" +
             "FIGHT, ACT, ITEM, MERCY.\n";
@@ -980,12 +1271,13 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         instructionsPages[6] = 
             "Instructions - Page 7:\n\n" +
             "Boss:\n" +
-            "- The boss has 5 attack patterns, and each \n" +
-            "turn the boss chooses 1 to execute.\n" +
+            "- The boss has 7 attack patterns, and each \n" +
+            "turn the boss chooses 1 to execute. The\n" +
+            "last turn layers 2 patterns at once.\n" +
             "- The order in which the boss selects each \n" + 
             "attack pattern remains the same.\n" +
-            "- After the boss has cycled through all 5 \n" + 
-            "attack patterns, each attack pattern \n" + 
+            "- After the boss has cycled through all 8 \n" + 
+            "turns, each attack pattern \n" + 
             "becomes harder with projectiles dealing \n" +
             "more damage and/or becoming faster.\n" +
             "- The game ends when the player chooses \n" + 
@@ -1006,6 +1298,37 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         g.drawString(navPrompt, getWidth() / 2 - navW / 2, getHeight() - 100);
     }
 
+    // draws the loading screen with the progress of the warm-up
+    private void drawLoadingScreen(Graphics g) {
+        String text;
+        FontMetrics fm;
+        int barWidth;
+        int barX;
+        int barY;
+        double progress;
+
+        // the assets load alongside the warm-up and finish long before it, so its progress is shown instead
+        if (warmup != null) {
+            text = "WARMING UP...";
+            progress = warmup.getProgress();
+        } else {
+            text = "LOADING...";
+            progress = loader == null ? 0 : loader.getProgress();
+        }
+
+        g.setFont(menuFont);
+        g.setColor(Color.WHITE);
+        fm = g.getFontMetrics();
+        g.drawString(text, getWidth() / 2 - fm.stringWidth(text) / 2, getHeight() / 2 - 40);
+
+        // progress bar
+        barWidth = 400;
+        barX = getWidth() / 2 - barWidth / 2;
+        barY = getHeight() / 2;
+        g.drawRect(barX, barY, barWidth, 30);
+        g.fillRect(barX, barY, (int) (barWidth * progress), 30);
+    }
+
     // draws the settings screen
     private void drawSettings(Graphics g) {
         // variables for instructions
@@ -1025,14 +1348,14 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
 
         // draw the title
         title = "Select Difficulty:";
-        g.setFont(g.getFont().deriveFont(40f));
+        g.setFont(settingsTitleFont);
         fm = g.getFontMetrics();
         titleWidth = fm.stringWidth(title);
         g.drawString(title, getWidth()/2 - titleWidth/2, 150);
 
         baseY = getHeight()/2 - 50;
         spacing = 80;
-        g.setFont(g.getFont().deriveFont(26f));
+        g.setFont(settingsFont);
         for(int i = 0; i < difficulties.length; i++){
             displayText = difficulties[i] + ": " + difficultyDescription[i];
             if(i == difficultyIdx){
@@ -1045,6 +1368,10 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             g.drawString(displayText, 140, baseY + i * spacing);
         }     
 
+        // show the stress test multiplier
+        g.setColor(spawnMultiplier > 1 ? Color.YELLOW : Color.WHITE);
+        g.drawString("[T] STRESS TEST: " + spawnMultiplier + "X BULLETS", 140, baseY + difficulties.length * spacing);
+
         // show instructions
         g.setColor(Color.WHITE);
         adjustText = "[UP/DOWN] SWITCH, [Z] CONFIRM, [X] BACK";
@@ -1052,6 +1379,36 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         g.drawString(adjustText, getWidth() / 2 - adjW / 2, getHeight() / 2 + 300);
     }
 
+    // draws the parts of the battle screen that rarely change into the battle layer
+    private void drawBattleLayer(Graphics g) {
+        g.drawImage(backgroundScaled, 0, 0, this);
+        drawBossUI(g);
+        drawBattleBox(g);
+        drawPlayerHPBar(g);
+    }
+
+    // checks if anything the battle layer shows has changed since it was drawn, and remembers the new values
+    private boolean battleLayerChanged() {
+        boolean changed;
+
+        // the box and arena are replaced rather than changed, and so are the boss and player on a new game
+        changed = backgroundScaled != layerBackground || uiFont != layerFont || boss != layerBoss || player != layerPlayer
+                || battleBox != layerBox || arena != layerArena || boss.getHP() != layerBossHP
+                || player.getHP() != layerPlayerHP || player.getMaxHP() != layerPlayerMaxHP;
+        if (changed) {
+            layerBackground = backgroundScaled;
+            layerFont = uiFont;
+            layerBoss = boss;
+            layerPlayer = player;
+            layerBox = battleBox;
+            layerArena = arena;
+            layerBossHP = boss.getHP();
+            layerPlayerHP = player.getHP();
+            layerPlayerMaxHP = player.getMaxHP();
+        }
+        return changed;
+    }
+
     // draws the boss UI (HP) and its image at the top
     private void drawBossUI(Graphics g) {
         boss.drawUI(g, uiFont, getWidth()); // draws the boss HP and name
@@ -1061,7 +1418,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     // draws a flotaing damage popup when the boss takes damage
     private void drawDamagePopup(Graphics g) {
         if (showDamagePopup) {
-            g.setFont(uiFont.deriveFont(Font.BOLD, 32f));
+            g.setFont(boldUiFont);
             g.setColor(Color.RED);
             g.drawString(damageText, damagePopupX, damagePopupY);
         }
@@ -1069,6 +1426,20 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
 
     // draws the battle box, where the player moves during attacks
     private void drawBattleBox(Graphics g) {
+        Graphics2D g2d;
+
+        // arenas that aren't rectangles are drawn from their outline
+        if (arena.getShape() != Arena.Shape.RECTANGLE) {
+            g2d = (Graphics2D) g.create();
+            g2d.setColor(Color.BLACK);
+            g2d.fill(arena.getOutline());
+            g2d.setStroke(new BasicStroke(3f));
+            g2d.setColor(Color.WHITE);
+            g2d.draw(arena.getOutline());
+            g2d.dispose();
+            return;
+        }
+
         g.setColor(Color.WHITE);
         g.drawRect(battleBox.x, battleBox.y, battleBox.width, battleBox.height);
         g.drawRect(battleBox.x+1, battleBox.y+1, battleBox.width-2, battleBox.height-2);
@@ -1113,8 +1484,8 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         Graphics2D g2d;
 
         // variables for storing the button images and hover images
-        Image[] normalImages;
-        Image[] hoverImages;
+        SpriteAtlas.Sprite[] normalImages;
+        SpriteAtlas.Sprite[] hoverImages;
 
         // variables for formatting the buttons
         int buttonWidth;
@@ -1126,15 +1497,15 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         int centerY;
         int x;
         int y;
-        Image toDraw;
+        SpriteAtlas.Sprite toDraw;
 
         // variables for prompt on navgiation
         String prompt;
         int promptWidth;
 
         // use pre-scaled images
-        normalImages = new Image[]{fightButtonScaled, actButtonScaled, itemButtonScaled, mercyButtonScaled};
-        hoverImages = new Image[]{fightHoverScaled, actHoverScaled, itemHoverScaled, mercyHoverScaled};
+        normalImages = new SpriteAtlas.Sprite[]{fightButtonScaled, actButtonScaled, itemButtonScaled, mercyButtonScaled};
+        hoverImages = new SpriteAtlas.Sprite[]{fightHoverScaled, actHoverScaled, itemHoverScaled, mercyHoverScaled};
 
         // draws the outer box of the menu
         g2d = (Graphics2D) g.create();
@@ -1165,12 +1536,14 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             }
 
             y = centerY - buttonHeight / 2;
-            g.drawImage(toDraw, x, y, null);
+            if (toDraw != null) {
+                toDraw.draw(g, x, y);
+            }
             x += buttonWidth + spacing;
         }
 
         // instructions on how to navigate the menu
-        g.setFont(menuFont.deriveFont(Font.PLAIN, 24f));
+        g.setFont(smallMenuFont);
         g.setColor(Color.WHITE);
         prompt = "[LEFT/RIGHT] to cycle, [Z] to confirm";
         promptWidth = g.getFontMetrics().stringWidth(prompt);
@@ -1190,44 +1563,58 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         g.setColor(Color.BLACK);
         g.fillRect(bottomBox.x + 1, bottomBox.y + 1, bottomBox.width - 1, bottomBox.height - 1);
 
-        barY = bottomBox.y + (bottomBox.height - fightBarImage.getHeight(this)) / 2;
-        barX = (getWidth() - fightBarImage.getWidth(this)) / 2;
-        g.drawImage(fightBarImage, barX, barY, this);
+        barY = bottomBox.y + (bottomBox.height - fightBarImage.getHeight()) / 2;
+        barX = (getWidth() - fightBarImage.getWidth()) / 2;
+        fightBarImage.draw(g, barX, barY);
 
         // the moving cursor for timing
-        cursorY = barY + (fightBarImage.getHeight(this) / 2) - (cursorImage.getHeight(this) / 2);
-        g.drawImage(cursorImage, fightMarkerX, cursorY, this);
+        cursorY = barY + (fightBarImage.getHeight() / 2) - (cursorImage.getHeight() / 2);
+        cursorImage.draw(g, fightMarkerX, cursorY);
     }
 
     // draws the boss's bullets and special attacks
     private void drawBossAttack(Graphics g) {
-        AttackPattern pattern; // track the current attack pattern
-
         // draw each boss bullet
         for (Bullet bullet : bullets) {
             bullet.draw(g, this);
         }
-        // draw extra shapes/effects from the active pattern, if any
-        pattern = getCurrentAttackPattern();
-        if (pattern instanceof MovingGapAttack) {
-            ((MovingGapAttack) pattern).drawAttack(g);
-        }
-        if (pattern instanceof VerticalLaserAttack) {
-            ((VerticalLaserAttack) pattern).drawAttack(g);
-        }
-        if (pattern instanceof GunnerAttack) {
-            ((GunnerAttack) pattern).drawAttack(g);
+        // draw extra shapes/effects from every active pattern, if any
+        scheduler.drawAttack(g);
+    }
+
+    // draws a full screen image. the copy scaled to the panel is made in the background when the screen
+    // is shown, until it is ready the image is scaled as it is drawn
+    private void drawScreenImage(Graphics g, Image image) {
+        Image scaled;
+
+        scaled = SpriteCache.getIfCached(image, getWidth(), getHeight());
+        if (scaled != null) {
+            g.drawImage(scaled, 0, 0, null);
+        } else {
+            g.drawImage(image, 0, 0, getWidth(), getHeight(), null);
         }
     }
 
     // draws the overlay for when the player wins
     private void drawWinScreen(Graphics g) {
-        g.drawImage(winImage, 0, 0, getWidth(), getHeight(), null);
+        drawScreenImage(g, winImage.getIfLoaded());
     }
 
     // draws the overlay for when the player loses
     private void drawLoseScreen(Graphics g) {
-        g.drawImage(loseImage, 0, 0, getWidth(), getHeight(), null);
+        String survivedText;
+        int textWidth;
+
+        drawScreenImage(g, loseImage.getIfLoaded());
+
+        // in endless mode, show how long the player lasted
+        if (isEndlessMode()) {
+            g.setFont(boldUiFont);
+            g.setColor(Color.WHITE);
+            survivedText = "YOU SURVIVED " + formatTime(survivalTime) + " (" + cycleCount + " CYCLES)";
+            textWidth = g.getFontMetrics().stringWidth(survivedText);
+            g.drawString(survivedText, getWidth() / 2 - textWidth / 2, getHeight() - 80);
+        }
     }
 
     // draws the item selection screen
@@ -1254,13 +1641,13 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         g.fillRect(bottomBox.x + 1, bottomBox.y + 1, bottomBox.width - 1, bottomBox.height - 1);
     
         // title for the item selection
-        g.setFont(uiFont.deriveFont(Font.BOLD, 32f));
+        g.setFont(boldUiFont);
         g.setColor(Color.WHITE);
         title = "Select Item:";
         g.drawString(title, bottomBox.x + 40, bottomBox.y + 50);
     
         // text for item name/quantity
-        g.setFont(uiFont.deriveFont(Font.PLAIN, 28f));
+        g.setFont(uiFont);
         selectedItem = player.getSelectedItem();
     
         if (selectedItem != null) {
@@ -1306,7 +1693,6 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     // draw the act sub-menu
     private void drawActSubMenu(Graphics g) {
         // variables for formatting the text
-        Font actFont;
         FontMetrics fm;
         int cols;
         int rows;
@@ -1328,7 +1714,6 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         int textX;
 
         // variables for drawing the navigation prompt
-        Font instructionsFont;
         String instructions;
         int instW;
 
@@ -1337,8 +1722,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         g.setColor(Color.BLACK);
         g.fillRect(bottomBox.x + 1, bottomBox.y + 1, bottomBox.width - 1, bottomBox.height - 1);
 
-        actFont = menuFont.deriveFont(Font.BOLD, 36f);
-        g.setFont(actFont);
+        g.setFont(menuFont);
         g.setColor(Color.WHITE);
 
         fm = g.getFontMetrics();
@@ -1385,8 +1769,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         }
 
         // instructions on the bottom
-        instructionsFont = menuFont.deriveFont(Font.PLAIN, 24f);
-        g.setFont(instructionsFont);
+        g.setFont(smallMenuFont);
         instructions = "[[LEFT/RIGHT] CYCLE   [Z] CONFIRM   [X] CANCEL";
         instW = g.getFontMetrics().stringWidth(instructions);
         g.setColor(Color.WHITE);
@@ -1396,6 +1779,8 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     // the main game loop called by the timer, updates logic based on current state
     @Override
     public void actionPerformed(ActionEvent e) {
+        long tickStart = System.nanoTime();
+
         // move cursor back and forth
         if (currentState == State.PLAYER_FIGHT_TIMING) {
             updateFightTiming();
@@ -1404,7 +1789,13 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         else if (currentState == State.BOSS_ATTACK) {
             updatePlayerMovement();
             updatePlayerBullets();
-            executeCurrentAttackPattern();
+            executeAttackPhase();
+
+            // let the spawn governor know how long the last frame took to update and draw
+            spawnGovernor.recordFrame(System.nanoTime() - tickStart + lastPaintNanos);
+            if (spawnMultiplier > 1) {
+                stressStats.record(System.nanoTime() - tickStart, lastPaintNanos, getLiveCount());
+            }
         }
 
         // update damage popup timer
@@ -1412,14 +1803,69 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             damagePopupTimer--;
             if (damagePopupTimer <= 0) {
                 showDamagePopup = false;
+                markDirty(getDamagePopupBounds());
             }
         }
 
-        // update player's flashing animation
-        player.updateFlash();
+        // update player's flashing animation (the player is created once the assets have loaded)
+        if (player != null) {
+            player.updateFlash();
+        }
+
+        // post the sound effects triggered since the last tick, at most one per effect
+        SoundEffects.flush();
+
+        // repaint the screen. screens that move every tick are repainted whole, the others only where they
+        // changed, and the rest stays as it is in Swing's back buffer
+        if (isAnimatedState(currentState)) {
+            repaint();
+        } else if (dirtyRegion != null) {
+            repaint(dirtyRegion);
+            dirtyRegion = null;
+        }
+    }
+
+    // checks if the given state's screen changes every tick
+    private boolean isAnimatedState(State state) {
+        return state == State.BOSS_ATTACK || state == State.PLAYER_FIGHT_TIMING || state == State.LOADING;
+    }
+
+    // marks part of the screen as changed, so it is repainted at the end of the tick
+    private void markDirty(Rectangle region) {
+        dirtyRegion = dirtyRegion == null ? new Rectangle(region) : dirtyRegion.union(region);
+    }
+
+    // marks the whole screen as changed
+    private void markAllDirty() {
+        markDirty(new Rectangle(0, 0, getWidth(), getHeight()));
+    }
+
+    // returns the area the damage popup is drawn in
+    private Rectangle getDamagePopupBounds() {
+        FontMetrics fm;
 
-        // repaint the screen
-        repaint();
+        fm = getFontMetrics(boldUiFont);
+        return new Rectangle(damagePopupX, damagePopupY - fm.getAscent(),
+                fm.stringWidth(damageText) + 1, fm.getAscent() + fm.getDescent());
+    }
+
+    // returns the area the kirby animation is drawn in on the main menu
+    private Rectangle getKirbyBounds() {
+        return new Rectangle(getWidth() - KIRBY_SIZE - 70, getHeight() / 3 + 50, KIRBY_SIZE, KIRBY_SIZE);
+    }
+
+    @Override
+    // an animated image calls this for each new frame. the kirby animation only repaints its own area, and
+    // stops being followed once the main menu isn't showing (drawing it again starts it again)
+    public boolean imageUpdate(Image img, int infoflags, int x, int y, int w, int h) {
+        if (img != null && img == kirbyImage.getIfLoaded()) {
+            if (currentState != State.MAIN_MENU) {
+                return false;
+            }
+            repaint(getKirbyBounds());
+            return (infoflags & (ALLBITS | ABORT)) == 0;
+        }
+        return super.imageUpdate(img, infoflags, x, y, w, h);
     }
 
     // moves the fight marker left and right for the fight minigame.
@@ -1453,8 +1899,8 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         if (upPressed) dy -= speed;
         if (downPressed) dy += speed;
 
-        // move the player, clamping inside the battleBox
-        player.move(dx, dy, battleBox);
+        // move the player, keeping them inside the arena
+        player.move(dx, dy, arena);
     }
 
     // updates any bullets fired by the player. removes them if they leave the battleBox or screen
@@ -1471,26 +1917,39 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         }
     }
 
-    // executes the current attack pattern, advancing to the next pattern if done.
-    private void executeCurrentAttackPattern() {
-        AttackPattern pattern;
-        
-        pattern = getCurrentAttackPattern();
-        if (pattern != null) {
-            pattern.execute();
-
-            // if the pattern signals it's finished, move on
-            if (pattern.isFinished()) {
-                currentAttackPattern++;
-                if (currentAttackPattern >= attackPatterns.size()) {
-                    currentAttackPattern = 0;
-                    // increase cycle count if we've cycled through all patterns
+    // executes every pattern of the current attack phase, then moves and collides everything they spawned
+    // in one pass. advances to the next phase once every pattern is done.
+    private void executeAttackPhase() {
+        if (scheduler.getPhaseCount() > 0) {
+            scheduler.execute();
+            updateBossBullets();
+
+            // if every pattern of the phase signals it's finished, move on
+            if (scheduler.isPhaseFinished()) {
+                // print a line of the scaling report when playing with a stress test multiplier and "--report".
+                // without it the numbers are only shown on screen
+                if (spawnMultiplier > 1 && !headless) {
+                    if (reportsEnabled) {
+                        System.out.println(FrameStats.header());
+                        System.out.println(stressStats.formatRow(scheduler.getPhaseName(scheduler.getCurrentPhase()), spawnMultiplier));
+                    }
+                    stressStats.clear();
+                }
+
+                // increase cycle count if we've cycled through all phases
+                if (scheduler.advance()) {
                     cycleCount++;
                 }
-                // clear bullets between patterns
+                // clear bullets between phases
                 bullets.clear();
                 playerBullets.clear();
 
+                // in endless mode the next attack starts right away
+                if (isEndlessMode() && !player.isDead()) {
+                    startBossAttack();
+                    return;
+                }
+
                 // if the boss still lives, go back to DIALOG to show next text
                 if (boss.getHP() > 0 && !player.isDead()) {
                     dialogText = ("Greb: Not bad... Next phase!").toUpperCase();
@@ -1503,20 +1962,163 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             bullets.clear();
             playerBullets.clear();
 
-            // stop current music
-            if (clip != null && clip.isRunning()) {
-                clip.stop();
-            }
-            // play defeat sound effect
-            playSoundEffect("Sounds/defeat.wav"); 
+            // crossfade from the battle music to the defeat track
+            playMusic("Sounds/defeat.wav", false);
+
+            survivalTime = System.currentTimeMillis() - survivalStartTime;
 
             setCurrentState(State.LOSE);
         }
     }
 
-    // helper method for other classes to add bullets
-    public void spawnBullet(Bullet bullet) {
+    // moves every boss bullet, removes the ones that left the screen or hit a wall of the arena, and
+    // checks bullets and pattern hazards against the player. this is the only place the player gets hit
+    // during an attack, however many patterns are running
+    private void updateBossBullets() {
+        Rectangle playerRect;
+        Bullet b;
+        int last;
+        int hitDamage;
+
+        playerRect = player.getHitbox();
+        hitDamage = 0;
+
+        for (int i = bullets.size() - 1; i >= 0; i--) {
+            b = bullets.get(i);
+
+            // homing bullets adjust their trajectory towards the player first
+            if (b instanceof HomingBullet) {
+                ((HomingBullet) b).home();
+            }
+            b.update();
+
+            if (b.isOutOfBounds(getWidth(), getHeight(), battleBox) || arena.isWall(b.x, b.y)) {
+                // delete bullet, walls of the arena also absorb bullets. a bullet that came close counts as a graze
+                player.finishGraze(b);
+            } else if (b.intersects(playerRect)) {
+                hitDamage = Math.max(hitDamage, b.getDamage());
+            } else {
+                player.checkGraze(b); // near misses count as grazes
+                continue;
+            }
+
+            // remove the bullet by moving the last one into its place (it has already been updated)
+            if (b.getOwner() != null) {
+                b.getOwner().bulletRemoved();
+            }
+            last = bullets.size() - 1;
+            bullets.set(i, bullets.get(last));
+            bullets.remove(last);
+        }
+
+        // lasers, pillars and other hazards of the active patterns
+        hitDamage = Math.max(hitDamage, scheduler.getHazardDamage(playerRect));
+        if (hitDamage > 0) {
+            decreasePlayerHP(hitDamage);
+        }
+    }
+
+    // helper method for attack patterns to add bullets, returns false if the spawn governor refused it
+    public boolean spawnBullet(AttackPattern owner, Bullet bullet) {
+        if (!allowSpawn()) {
+            return false;
+        }
+        bullet.setOwner(owner);
+        owner.bulletSpawned();
         bullets.add(bullet);
+        return true;
+    }
+
+    // checks with the spawn governor if an attack pattern may spawn something this tick. the governor counts
+    // everything that is live, the patterns' own objects (swarm minions, pillars, ...) as well as the bullets.
+    // only endless mode is governed, the normal difficulties always play their attacks in full
+    public boolean allowSpawn() {
+        if (!isEndlessMode()) {
+            return true;
+        }
+        return spawnGovernor.allowSpawn(getLiveCount());
+    }
+
+    // returns the current time in milliseconds that attack patterns use for their timing. it follows the
+    // audio that has been played, headless sessions have their own clock that moves forward one tick at a time
+    public long getGameTime() {
+        if (headless) {
+            return gameTime;
+        }
+        return audioClock.millis();
+    }
+
+    // returns the time of the first music beat at or after the given game time. headless sessions and
+    // music without a beat grid have no beats, so the time is returned as it is
+    public long getNextBeat(long time) {
+        if (headless) {
+            return time;
+        }
+        return audioClock.nextBeat(time);
+    }
+
+    // returns how many milliseconds a sound effect posted now takes to be heard
+    public long getAudioLatency() {
+        if (headless) {
+            return 0;
+        }
+        return audioClock.getLatencyMillis();
+    }
+
+    // returns how many times more bullets the attack patterns should spawn (stress test)
+    public int getSpawnMultiplier() {
+        return spawnMultiplier;
+    }
+
+    // sets the stress test multiplier. the spawn governor is turned off while stress testing
+    public void setSpawnMultiplier(int multiplier) {
+        spawnMultiplier = multiplier;
+        spawnGovernor.setEnabled(multiplier == 1);
+        stressStats.clear();
+    }
+
+    // returns the number of live bullets plus any objects the active attack patterns manage themselves
+    public int getLiveCount() {
+        return bullets.size() + scheduler.getEntityCount();
+    }
+
+    // getter method for the images shared with the attack patterns
+    public AssetManager getAssets() {
+        return assets;
+    }
+
+    // getter method for the attack scheduler
+    public AttackScheduler getAttackScheduler() {
+        return scheduler;
+    }
+
+    // starts the given attack phase with a player that can't die, for headless stress runs
+    public void startStressPattern(int index) {
+        stressPattern = index;
+        cycleCount = 0;
+        scheduler.setCurrentPhase(index);
+        player.setMaxHP(Integer.MAX_VALUE / 2);
+        startBossAttack();
+    }
+
+    // runs one tick of the stress phase, restarting it whenever it finishes
+    public void runStressTick() {
+        gameTime += gameTimer.getDelay();
+        updatePlayerMovement();
+        updatePlayerBullets();
+        executeAttackPhase();
+
+        // keep replaying the same pattern at the same difficulty
+        if (currentState != State.BOSS_ATTACK || scheduler.getCurrentPhase() != stressPattern) {
+            cycleCount = 0;
+            scheduler.setCurrentPhase(stressPattern);
+            startBossAttack();
+        }
+    }
+
+    // checks if the game is being played in endless survival mode
+    public boolean isEndlessMode() {
+        return difficulties[difficultyIdx].equals("ENDLESS");
     }
 
     // helper method to spawn player bullets
@@ -1539,6 +2141,11 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         return battleBox;
     }
 
+    // getter method for the arena inside the battle box
+    public Arena getArena() {
+        return arena;
+    }
+
     // getter method for player object
     public Player getPlayer() {
         return player;
@@ -1551,7 +2158,9 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
 
     // helper method to decrease player health
     public void decreasePlayerHP(int amount) {
-        player.damage(amount);
+        if (player.damage(amount)) {
+            playSoundEffect("Sounds/damagetaken.wav");
+        }
     }
 
     // getter method for current boss speed modifier
@@ -1581,9 +2190,28 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             playMusic("Sounds/menumusic.wav");
         }
 
+        // swap the screen-only images: the new screen's image starts loading in the background (it is
+        // drawn once it's in), the old one can be evicted
+        if (getScreenImage(newState) != getScreenImage(currentState)) {
+            if (getScreenImage(currentState) != null) {
+                getScreenImage(currentState).release();
+            }
+            if (getScreenImage(newState) != null) {
+                getScreenImage(newState).acquire();
+                prewarmExecutor.submit(prepareScreenImage(getScreenImage(newState), getWidth(), getHeight()));
+            }
+        }
+
         // update the current state, and re-initialize layout based on that state
         currentState = newState;
         initializeLayout();
+        battleLayer.invalidate();
+        markAllDirty();
+
+        // get the next attack ready while the player reads the dialog
+        if (newState == State.DIALOG) {
+            prewarmNextPhase();
+        }
 
         // reset instruction page when switching to or from instructions
         if (newState == State.INSTRUCTIONS) {
@@ -1591,14 +2219,31 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         }
     }
 
-    // retrieves the currently active AttackPattern object
-    public AttackPattern getCurrentAttackPattern() {
-        // check if current attack pattern is in the valid range
-        if (currentAttackPattern < attackPatterns.size()) {
-            return attackPatterns.get(currentAttackPattern);
+    // returns a task that loads a screen's image, and scales the full screen ones to the panel
+    private Runnable prepareScreenImage(AssetManager.Handle<? extends Image> handle, int width, int height) {
+        return () -> {
+            Image image = handle.get();
+            // the kirby animation is drawn from the original, a scaled copy would only have its first frame
+            if (handle != kirbyImage) {
+                SpriteCache.get(image, width, height);
+            }
+            // the screen may have been drawn without it, repaint() is safe to call from any thread
+            repaint();
+        };
+    }
+
+    // returns the image only the given state's screen uses, or null if it has none
+    private AssetManager.Handle<? extends Image> getScreenImage(State state) {
+        switch (state) {
+            case MAIN_MENU:
+                return kirbyImage;
+            case WIN:
+                return winImage;
+            case LOSE:
+                return loseImage;
+            default:
+                return null;
         }
-        // not possible, return null
-        return null;
     }
 
     // return the players jet image
@@ -1623,18 +2268,17 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
 
     // switches the game to BOSS_ATTACK state, clearing bullets and centering player, etc.
     private void startBossAttack() {
-        AttackPattern current;
+        // the prewarm thread has usually finished long ago, this only waits if the dialog was skipped quickly
+        finishPrewarm();
+        prewarmKey = "";
 
         setCurrentState(State.BOSS_ATTACK);
         bullets.clear();
         playerBullets.clear();
-        player.centerInBox(battleBox);
+        player.centerInArena(arena);
         resetMovementBooleans();
 
-        current = getCurrentAttackPattern();
-        if (current != null) {
-            current.initialize();
-        }
+        scheduler.startPhase();
     }
 
     // switches to the FIGHT timing minigame and resets the marker position.
@@ -1698,15 +2342,12 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         damagePopupY = boss.getRect().y + 60;
         showDamagePopup = true;
         damagePopupTimer = 60;
+        markDirty(getDamagePopupBounds());
 
         // if that last hit defeated the boss, go to WIN
         if (boss.isDefeated()) {
-            // stop current music
-            if (clip != null && clip.isRunning()) {
-                clip.stop();
-            }
-            // play a victory sound effect
-            playSoundEffect("Sounds/victory.wav");
+            // crossfade from the battle music to the victory track
+            playMusic("Sounds/victory.wav", false);
             setCurrentState(State.WIN);
         } else {
             dialogText = hitResult.toUpperCase();
@@ -1797,8 +2438,13 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
 
     // ends the dialog (DIALOG or INTRO states) and decides what's next
     private void endDialog() {
-        // if in the INTRO, move to the player's first menu
+        // if in the INTRO, move to the player's first menu, or straight into the attacks in endless mode
         if (currentState == State.INTRO) {
+            if (isEndlessMode()) {
+                survivalStartTime = System.currentTimeMillis();
+                startBossAttack();
+                return;
+            }
             setCurrentState(State.PLAYER_MENU);
             return;
         }
@@ -1830,7 +2476,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             }
         }
         if (dialogText.contains("NEXT PHASE") || dialogText.contains("CONTINUE")) {
-            if (!boss.isDefeated() && !player.isDead() && getCurrentAttackPattern() != null) {
+            if (!boss.isDefeated() && !player.isDead() && scheduler.getPhaseCount() > 0) {
                 setCurrentState(State.PLAYER_MENU);
                 return;
             }
@@ -1856,17 +2502,21 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         String choice; // keep track of selection user option
         Rectangle pr;
         Bullet pb;
-        AttackPattern pattern;
+        State before;
         
         code = e.getKeyCode();
+        before = currentState;
 
         // MAIN MENU
         if (currentState == State.MAIN_MENU) {
             if (code == KeyEvent.VK_Z) {
-                setCurrentState(State.INTRO);
-                playSoundEffect("Sounds/buttonselect.wav");
-                playMusic("Sounds/fightmusic.wav");
-                dialogText = "YOU ENCOUNTERED GREBORY ANTONY.";
+                if (assetsLoaded) {
+                    startIntro();
+                } else {
+                    // wait on the loading screen for the battle's images
+                    startWhenLoaded = true;
+                    setCurrentState(State.LOADING);
+                }
             } else if (code == KeyEvent.VK_I) {
                 playSoundEffect("Sounds/buttonselect.wav");
                 setCurrentState(State.INSTRUCTIONS);
@@ -1901,9 +2551,11 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         // SETTINGS
         else if (currentState == State.SETTINGS) {
             if (code == KeyEvent.VK_Z) {
-                // set player's HP to the chosen difficulty
+                // set player's HP to the chosen difficulty (a player created later starts with it anyway)
                 playSoundEffect("Sounds/buttonselect.wav");
-                player.setMaxHP(difficultyHP[difficultyIdx]);
+                if (player != null) {
+                    player.setMaxHP(difficultyHP[difficultyIdx]);
+                }
                 setCurrentState(State.MAIN_MENU);
             } else if (code == KeyEvent.VK_UP) {
                 playSoundEffect("Sounds/buttonswitch.wav");
@@ -1923,6 +2575,15 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
                 // go back to main menu without applying changes
                 playSoundEffect("Sounds/buttonselect.wav");
                 setCurrentState(State.MAIN_MENU);
+            } else if (code == KeyEvent.VK_T) {
+                // cycle through the stress test multipliers
+                playSoundEffect("Sounds/buttonswitch.wav");
+                for (int i = 0; i < STRESS_MULTIPLIERS.length; i++) {
+                    if (STRESS_MULTIPLIERS[i] == spawnMultiplier) {
+                        setSpawnMultiplier(STRESS_MULTIPLIERS[(i + 1) % STRESS_MULTIPLIERS.length]);
+                        break;
+                    }
+                }
             }
         }
 
@@ -2031,11 +2692,10 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             }
             // [X] can be used to shoot if the pattern allows
             if (code == KeyEvent.VK_X) {
-                pattern = getCurrentAttackPattern();
-                if (pattern instanceof GunnerAttack) {
+                if (scheduler.isActive(GunnerAttack.class)) {
                     pr = player.getHitbox();
                     pb = new Bullet(pr.x + pr.width, pr.y + pr.height/2 - 5,10, 10, 0, 0, null,Color.YELLOW);
-                    GamePanel.playSoundEffect("Sounds/playerbullet.wav");
+                    playSoundEffect("Sounds/playerbullet.wav", getPan(pr.x + pr.width));
                     spawnPlayerBullet(pb);
                 }
             }
@@ -2045,10 +2705,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         else if (currentState == State.WIN || currentState == State.LOSE) {
             if (code == KeyEvent.VK_Z) {
                 // stop any ongoing sound effect
-                if (effectClip != null && effectClip.isRunning()) {
-                    effectClip.stop();
-                    effectClip.close();
-                }
+                SoundEffects.stopAll();
 
                 resetGame();
 
@@ -2057,6 +2714,15 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
                 setCurrentState(State.MAIN_MENU);
             }
         }
+
+        // a key that only moved the selection in a battle menu repaints the bottom box the options are in,
+        // any other key repaints the whole screen
+        if (currentState == before && bottomBox != null && (before == State.PLAYER_MENU
+                || before == State.PLAYER_ACT || before == State.PLAYER_ITEM_SELECT)) {
+            markDirty(new Rectangle(bottomBox.x - 2, bottomBox.y - 2, bottomBox.width + 5, bottomBox.height + 5));
+        } else {
+            markAllDirty();
+        }
     }
 
     // when a key is released, stop moving in that direction.
@@ -23,6 +23,7 @@ public class GunnerAttack extends AttackPattern {
     private int boxSize = 40;
 
     private ArrayList<Column> columns = new ArrayList<>();
+    private ArrayList<Column> preparedColumns; // columns built ahead of time for the next phase
     private Random rand = new Random();
 
     // constructor of attack pattern
@@ -30,15 +31,35 @@ public class GunnerAttack extends AttackPattern {
         super(panel);
     }
 
+    @Override
+    // removes the columns left over from the last game
+    public void reset() {
+        super.reset();
+        columns.clear();
+    }
+
+    @Override
+    // drops the columns
+    public void dispose() {
+        columns.clear();
+    }
+
+    @Override
+    // builds the columns for the next phase in the background
+    protected void prepareLayout(Rectangle box, int cycle, int multiplier) {
+        preparedColumns = buildColumns(box, cycle, multiplier);
+    }
+
+    @Override
+    // returns the sounds played while this attack runs
+    public String[] getSoundPaths() {
+        return new String[]{"Sounds/boxbreak.wav", "Sounds/playerbullet.wav"};
+    }
+
     @Override
     // initializes the attack pattern by setting up all variables and columns
     public void initialize() {
         Rectangle box;
-        int count;
-        Column c;
-        int boxY;
-        int numBoxes;
-        Rectangle smallBox;
 
         // clear any leftover bullets
         panel.getBullets().clear();
@@ -46,28 +67,43 @@ public class GunnerAttack extends AttackPattern {
 
         // reset the attack pattern variables
         finished = false;
-        startTime = System.currentTimeMillis();
-        columns.clear();
+        startTime = panel.getGameTime();
         box = panel.getBattleBox();
-        count = 5; // base number of columns
-
-        // if second phase, increase difficulty
-        if (panel.getCycleCount() >= 1) {
-            duration = 10000; 
-            count = 10; 
-            damage = 25;
-            rectSpeed = 6;
-        }
+
+        // increase difficulty the more cycles have been completed
+        duration = Difficulty.value(8000, 10000, panel.getCycleCount());
+        damage = Difficulty.value(20, 25, panel.getCycleCount());
+        rectSpeed = Difficulty.value(4, 6, panel.getCycleCount());
 
         // switch player image to jet image
         panel.getPlayer().setToShipImage();
-    
-        // create columns
+
+        // use the columns prepared during the dialog if they fit, otherwise build them now
+        if (usePrepared(box)) {
+            columns = preparedColumns;
+        } else {
+            columns = buildColumns(box, panel.getCycleCount(), panel.getSpawnMultiplier());
+        }
+        preparedColumns = null;
+    }
+
+    // creates the columns off to the right of the box, each with boxes to shoot in its gap. the stress
+    // multiplier packs that many times more columns into the same stretch, so the attack lasts as long
+    private ArrayList<Column> buildColumns(Rectangle box, int cycle, int multiplier) {
+        ArrayList<Column> result;
+        int count;
+        Column c;
+        int boxY;
+        int numBoxes;
+        Rectangle smallBox;
+
+        result = new ArrayList<>();
+        count = Difficulty.value(5, 10, cycle) * multiplier;
         for (int i = 0; i < count; i++) {
             c = new Column();
 
             // set up column position to the right, so they come in sequentially
-            c.x = box.x + box.width + i * 300;
+            c.x = box.x + box.width + i * 300 / multiplier;
 
             // randomized gap so the opening for the user moves around
             c.gapY = box.y + rand.nextInt(box.height - gapBaseHeight);
@@ -89,23 +125,23 @@ public class GunnerAttack extends AttackPattern {
                 c.boxes.add(smallBox);
             }
 
-            columns.add(c);
+            result.add(c);
         }
+        return result;
     }
 
     @Override
-    // updates the logic each frame: moves pillars, checks collisions and other game logic
+    // updates the logic each frame: moves pillars, checks the player's bullets and other game logic
     public void execute() {
         long now;
         Rectangle box;
         Iterator<Column> it = columns.iterator();
-        now = System.currentTimeMillis();
+        now = panel.getGameTime();
         box = panel.getBattleBox();
         it = columns.iterator();
         Column c;
 
         // variables for collision detection
-        Rectangle playerRect;
         Iterator<Bullet> pbit;
         Iterator<Rectangle> boxIt;
         Bullet pb;
@@ -130,35 +166,6 @@ public class GunnerAttack extends AttackPattern {
                 smallBox.x = c.x + (rectWidth - boxSize) / 2;
             }
 
-            // define player hitbox for collision detection
-            playerRect = panel.getPlayer().getHitbox();
-            
-            // if player hits topRect or bottomRect, damage them
-            if (c.topRect.intersects(playerRect) || c.bottomRect.intersects(playerRect)) {
-                panel.decreasePlayerHP(damage);
-
-                // if player dies to attack, end game
-                if (panel.getPlayer().isDead()) {
-                    finished = true;
-                    panel.getPlayerBullets().clear();
-                    return;
-                }
-            }
-
-            // check collision with the boxes in the gap
-            for (Rectangle bR : c.boxes) {
-                if (bR.intersects(playerRect)) {
-                    panel.decreasePlayerHP(damage);
-
-                    // if player dies to attack, end game
-                    if (panel.getPlayer().isDead()) {
-                        finished = true;
-                        panel.getPlayerBullets().clear();
-                        return;
-                    }
-                }
-            }
-
             // remove the column if it has moved past the left boundary
             if (c.x + rectWidth < box.x - 200) {
                 it.remove();
@@ -180,7 +187,7 @@ public class GunnerAttack extends AttackPattern {
                         // remove the small box
                         boxIt.remove();
                         consumed = true;
-                        GamePanel.playSoundEffect("Sounds/boxbreak.wav");
+                        panel.playSoundEffect("Sounds/boxbreak.wav", panel.getPan(bRect.x + bRect.width / 2));
                         break;
                     }
                 }
@@ -210,6 +217,29 @@ public class GunnerAttack extends AttackPattern {
         }
     }
 
+    @Override
+    // returns the number of columns on screen or still to come
+    public int getEntityCount() {
+        return columns.size();
+    }
+
+    @Override
+    // checks if the player touches any column or any of the boxes in the gaps
+    public int getHazardDamage(Rectangle playerRect) {
+        for (Column c : columns) {
+            if (c.topRect.intersects(playerRect) || c.bottomRect.intersects(playerRect)) {
+                return damage;
+            }
+            for (Rectangle bR : c.boxes) {
+                if (bR.intersects(playerRect)) {
+                    return damage;
+                }
+            }
+        }
+        return 0;
+    }
+
+    @Override
     // draws the attack phase, including the columns and boxes within the columns
     public void drawAttack(Graphics g) {
         Rectangle box = panel.getBattleBox();
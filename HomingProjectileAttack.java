@@ -7,7 +7,6 @@
  * game's cycle count.
  */
 import java.awt.*;
-import java.util.Iterator;
 import java.util.Random;
 
 public class HomingProjectileAttack extends AttackPattern {
@@ -30,11 +29,23 @@ public class HomingProjectileAttack extends AttackPattern {
     private int maxSpawns = 10;   
     private long lastSpawnTime;
     private long spawnInterval = 2000; // interval between spawning new bullets
+    private static final int BULLET_SIZE = 45;
 
     // constructor for a HomingProjectileAttack with the specified GamePanel and bullet image
     public HomingProjectileAttack(GamePanel panel, Image bulletImage) {
         super(panel);
         this.bulletImage = bulletImage;
+        SpriteAtlas.get(bulletImage, BULLET_SIZE, BULLET_SIZE); // packed now, so the first bullet doesn't have to
+    }
+
+    @Override
+    // method to put the attack pattern back into its starting state for a new game
+    public void reset() {
+        super.reset();
+        started = false;
+        spawnedCount = 0;
+        showExclamation = false;
+        panel.setExclamationState(this, false, exclamationX, exclamationY);
     }
 
     @Override
@@ -46,7 +57,7 @@ public class HomingProjectileAttack extends AttackPattern {
         panel.getBullets().clear();
         finished = false;
         started = false;
-        startTime = System.currentTimeMillis();
+        startTime = panel.getGameTime();
 
         battleBox = panel.getBattleBox();
 
@@ -59,17 +70,13 @@ public class HomingProjectileAttack extends AttackPattern {
         panel.setExclamationState(this, false, exclamationX, exclamationY);
 
         spawnedCount = 0;
-        maxSpawns = 10;
-        lastSpawnTime = System.currentTimeMillis();
-        spawnInterval = 2000; 
-
-        // if this is the second attack cycle or later, increase attack difficulty
-        if (panel.getCycleCount() >= 1) {
-            duration = 10000; 
-            spawnInterval = 1500;
-            maxSpawns = 15; 
-            damage = 20;
-        }
+        lastSpawnTime = panel.getGameTime();
+
+        // increase attack difficulty the more cycles have been completed
+        duration = Difficulty.value(7000, 10000, panel.getCycleCount());
+        spawnInterval = Difficulty.value(2000, 1500, panel.getCycleCount());
+        maxSpawns = Difficulty.value(10, 15, panel.getCycleCount()) * panel.getSpawnMultiplier();
+        damage = Difficulty.value(15, 20, panel.getCycleCount());
     }
 
     @Override
@@ -79,9 +86,8 @@ public class HomingProjectileAttack extends AttackPattern {
         Rectangle box;
         Point spawnPoint;
         HomingBullet hb;
-        Iterator<Bullet> it;
 
-        now = System.currentTimeMillis();
+        now = panel.getGameTime();
         box = panel.getBattleBox();
 
         if (!started) {
@@ -93,11 +99,12 @@ public class HomingProjectileAttack extends AttackPattern {
             }
             // start spawning bullets after the initial delay
             if ((now - startTime) >= delay) {
-                for (int i = 0; i < 5; i++) {
+                for (int i = 0; i < 5 * panel.getSpawnMultiplier(); i++) {
                     spawnPoint = getRandomEdgePoint(box);
-                    hb = new HomingBullet(spawnPoint.x,spawnPoint.y,45,damage,panel.getPlayer(), bulletImage);
-                    panel.spawnBullet(hb);
-                    spawnedCount++;
+                    hb = new HomingBullet(spawnPoint.x,spawnPoint.y,BULLET_SIZE,damage,panel.getPlayer(), bulletImage);
+                    if (panel.spawnBullet(this, hb)) {
+                        spawnedCount++;
+                    }
                 }
                 started = true;
                 showExclamation = false;
@@ -106,44 +113,19 @@ public class HomingProjectileAttack extends AttackPattern {
         } else {
             // spawn additional bullets periodically if maximum spawns not reached
             if ((now - lastSpawnTime >= spawnInterval) && spawnedCount < maxSpawns) {
-                spawnPoint = getRandomEdgePoint(box);
-                hb = new HomingBullet(spawnPoint.x,spawnPoint.y,45,damage,panel.getPlayer(),bulletImage);
-                panel.spawnBullet(hb);
-                spawnedCount++;
-                lastSpawnTime = now;
-            }
-        }
-
-        it = panel.getBullets().iterator();
-        while (it.hasNext()) {
-            Bullet b = it.next();
-
-            // if the bullet is a HomingBullet, adjust trajectory of homing bullet towards the player
-            if (b instanceof HomingBullet) {
-                hb = (HomingBullet) b;
-                hb.home();
-            }
-
-            // update the bullet's position and speed
-            b.update();
-
-            // check if the bullet has moved out of the battle area bounds
-            if (b.isOutOfBounds(panel.getWidth(), panel.getHeight(), box)) {
-                it.remove();
-            } 
-            // check for collision between the bullet and the player
-            else if (b.getBounds().intersects(panel.getPlayer().getHitbox())) {
-                panel.decreasePlayerHP(b.getDamage());
-                it.remove();
-                // if the player's HP reaches zero or below, mark the attack as finished
-                if (panel.getPlayer().isDead()) {
-                    finished = true;
+                for (int i = 0; i < panel.getSpawnMultiplier(); i++) {
+                    spawnPoint = getRandomEdgePoint(box);
+                    hb = new HomingBullet(spawnPoint.x,spawnPoint.y,BULLET_SIZE,damage,panel.getPlayer(),bulletImage);
+                    if (panel.spawnBullet(this, hb)) {
+                        spawnedCount++;
+                    }
                 }
+                lastSpawnTime = now;
             }
         }
 
         // check for end conditions: attack duration elapsed or all bullets spawned and cleared
-        if ((now - startTime) >= duration || (started && panel.getBullets().isEmpty() && spawnedCount >= maxSpawns)) {
+        if ((now - startTime) >= duration || (started && liveBullets == 0 && spawnedCount >= maxSpawns)) {
             finished = true;
         }
     }
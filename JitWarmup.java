@@ -0,0 +1,98 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class warms up the JIT compiler before the game starts. It runs every attack phase
+ * headlessly on a throwaway session for enough ticks that execute(), the bullet updates, homing and the
+ * collision loops get fully compiled, so the first cycle doesn't stutter. The first ticks of every phase
+ * are timed before and after the warm-up, so it can report how much the first cycle improved.
+ */
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+public class JitWarmup {
+    private static final int WARMUP_TICKS = 2000; // ticks each phase is run for
+    private static final int RENDER_EVERY = 20; // drawing is mostly native code, so only some ticks are drawn
+    private static final int SAMPLE_TICKS = 100; // first ticks of each phase that are timed
+
+    private volatile double progress = 0; // from 0 to 1, read by the loading screen
+    private long warmupMillis;
+    private FrameStats coldStats;
+    private FrameStats warmStats;
+
+    // runs the warm-up, this takes a few seconds and should not be called on the event thread
+    public void run() {
+        long start;
+        GamePanel panel;
+        BufferedImage frame;
+        Graphics g;
+        int phases;
+
+        // the throwaway session is headless, so it never plays any sounds
+        start = System.nanoTime();
+        panel = GamePanel.createHeadlessSession();
+        frame = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+        phases = panel.getAttackScheduler().getPhaseCount();
+
+        // time the first ticks of every phase while the code is still cold
+        coldStats = samplePhases(panel, g, phases);
+
+        for (int i = 0; i < phases; i++) {
+            panel.startStressPattern(i);
+            for (int t = 0; t < WARMUP_TICKS; t++) {
+                panel.runStressTick();
+                if (t % RENDER_EVERY == 0) {
+                    panel.renderFrame(g);
+                }
+            }
+            progress = (i + 1.0) / phases;
+        }
+
+        // time the same first ticks again now that the code is compiled (every phase starts over)
+        warmStats = samplePhases(panel, g, phases);
+        warmupMillis = (System.nanoTime() - start) / 1000000;
+
+        g.dispose();
+        panel.dispose();
+    }
+
+    // runs the first ticks of every phase and records how long they took
+    private FrameStats samplePhases(GamePanel panel, Graphics g, int phases) {
+        FrameStats stats;
+        long tickStart;
+        long paintStart;
+
+        stats = new FrameStats(phases * SAMPLE_TICKS);
+        for (int i = 0; i < phases; i++) {
+            panel.startStressPattern(i);
+            for (int t = 0; t < SAMPLE_TICKS; t++) {
+                tickStart = System.nanoTime();
+                panel.runStressTick();
+                paintStart = System.nanoTime();
+                panel.renderFrame(g);
+                stats.record(paintStart - tickStart, System.nanoTime() - paintStart, panel.getLiveCount());
+            }
+        }
+        return stats;
+    }
+
+    // returns how far along the warm-up is, from 0 to 1
+    public double getProgress() {
+        return progress;
+    }
+
+    // returns how long the warm-up took in milliseconds
+    public long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    // returns a short report of the warm-up time and the first cycle frame times before and after it
+    public String getReport() {
+        return String.format("JIT warm-up took %d ms. First cycle, cold -> warm: update p99 %.3f -> %.3f ms, "
+                + "frame p50 %.3f -> %.3f ms, frame p99 %.3f -> %.3f ms, worst frame %.3f -> %.3f ms",
+                warmupMillis, coldStats.tickPercentile(99), warmStats.tickPercentile(99),
+                coldStats.framePercentile(50), warmStats.framePercentile(50),
+                coldStats.framePercentile(99), warmStats.framePercentile(99),
+                coldStats.framePercentile(100), warmStats.framePercentile(100));
+    }
+}
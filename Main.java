@@ -4,12 +4,40 @@
  * Description: This class creates a new GameFrame, which initializes the game.
  */
 import javax.swing.SwingUtilities;
+import java.util.Arrays;
 
 public class Main {
     // main method where the main application starts
     public static void main(String[] args) {
+        // "--report" prints how much memory the images and sounds use once they have loaded
+        GamePanel.setReportsEnabled(Arrays.asList(args).contains("--report") || Arrays.asList(args).contains("--stress"));
+
+        // "--stress" runs the headless stress test instead of the game
+        if (args.length > 0 && args[0].equals("--stress")) {
+            System.setProperty("java.awt.headless", "true");
+            StressTest.run(Arrays.copyOfRange(args, 1, args.length));
+            System.exit(0);
+        }
+
+        // "--pack" builds the asset archive from the Images and Sounds folders and exits. "--pack-if-stale"
+        // only builds it when it is missing or older than the files it is built from
+        if (args.length > 0 && (args[0].equals("--pack") || args[0].equals("--pack-if-stale"))) {
+            try {
+                if (args[0].equals("--pack") || !AssetArchive.isUpToDate()) {
+                    AssetArchive.pack();
+                }
+            } catch (Exception e) {
+                System.out.println("Error packing the assets: " + e.getMessage());
+                System.exit(1);
+            }
+            System.exit(0);
+        }
+
+        // "--warmup" compiles the attack patterns' hot code behind a loading screen before the menu shows
+        boolean warmup = Arrays.asList(args).contains("--warmup");
+
         SwingUtilities.invokeLater(() -> {
-            GameFrame game = new GameFrame();
+            GameFrame game = new GameFrame(warmup);
             game.setVisible(true);
         });
     }
@@ -9,8 +9,6 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Random;
 import java.awt.*;
-import javax.imageio.ImageIO;
-import java.io.IOException;
 
 public class MovingGapAttack extends AttackPattern {
     private long startTime;
@@ -19,103 +17,122 @@ public class MovingGapAttack extends AttackPattern {
     private int rectWidth = 60;
     private int rectSpeed = 5;
     private ArrayList<int[]> pairs = new ArrayList<>();
+    private ArrayList<int[]> preparedPairs; // pillars built ahead of time for the next phase
     private Random rand = new Random();
 
     private Image attackImage;
     private boolean imageLoaded = false;
 
-    // constructor that initializes the attack by loading the attack image.
+    // the pillar sprites, looked up again only when the battle box's height changes instead of on every frame
+    private SpriteAtlas.Sprite topSprite;
+    private SpriteAtlas.Sprite bottomSprite;
+
+    // constructor that fetches the attack image from the panel's shared assets (loaded once at startup)
     public MovingGapAttack(GamePanel panel) {
         super(panel);
-        loadAttackImage("/Images/pipe.png");
+        attackImage = panel.getAssets().getImage("/Images/pipe.png");
+        imageLoaded = attackImage != null;
+    }
+
+    @Override
+    // removes the pillars left over from the last game
+    public void reset() {
+        super.reset();
+        pairs.clear();
+    }
+
+    @Override
+    // drops the pillars and the reference to the shared image
+    public void dispose() {
+        pairs.clear();
+        attackImage = null;
+        topSprite = null;
+        bottomSprite = null;
+        imageLoaded = false;
+    }
+
+    @Override
+    // builds the pillars for the next phase in the background
+    protected void prepareLayout(Rectangle box, int cycle, int multiplier) {
+        preparedPairs = buildPillars(box, cycle, multiplier);
+        getPillarSprite(true, box.height);
+        getPillarSprite(false, box.height);
     }
 
-    // loads the attack image from a given path.
-    private void loadAttackImage(String imagePath) {
-        Image tempImg;
-        try {
-            tempImg = ImageIO.read(getClass().getResource(imagePath));
-            attackImage = tempImg;
-            imageLoaded = true;
-        } catch (IOException | IllegalArgumentException ex) {
-            attackImage = null;
-            imageLoaded = false;
-            System.err.println("Failed to load attack image: " + ex.getMessage());
+    // returns the top or bottom half of the pipe image as a sprite as wide as a pillar and as tall as the
+    // battle box. the pipe only has vertical stripes, so cutting a pillar out of it looks the same as
+    // stretching the half to the pillar's height, and it is a 1:1 copy
+    private SpriteAtlas.Sprite getPillarSprite(boolean top, int height) {
+        int halfHeight;
+
+        if (attackImage == null) {
+            return null;
         }
+        halfHeight = attackImage.getHeight(panel) / 2;
+        return SpriteAtlas.get(attackImage, 0, top ? 0 : halfHeight, attackImage.getWidth(panel), halfHeight, rectWidth, height);
     }
 
     // initializes the attack by clearing bullets and placing pillars off-screen
     public void initialize() {
-        int numberOfPillars;
-        int x;
-        int gapY;
-        int gapHeight;
-        int[] p;
+        Rectangle box;
 
         panel.getBullets().clear();
         finished = false;
-        startTime = System.currentTimeMillis();
-
-        Rectangle box = panel.getBattleBox();
-        pairs.clear();
+        startTime = panel.getGameTime();
+        box = panel.getBattleBox();
 
-        numberOfPillars = 8; // default for the first cycle
+        // increase difficulty the more cycles have been completed
+        duration = Difficulty.value(8000, 14000, panel.getCycleCount());
+        rectSpeed = Difficulty.value(5, 8, panel.getCycleCount());
+        damage = Difficulty.value(20, 25, panel.getCycleCount());
 
-        // if second phase, increase difficulty
-        if (panel.getCycleCount() >= 1) {
-            duration = 14000; 
-            rectSpeed = 8;
-            damage += 5;
-            numberOfPillars = 16;
+        // use the pillars prepared during the dialog if they fit, otherwise build them now
+        if (usePrepared(box)) {
+            pairs = preparedPairs;
+        } else {
+            pairs = buildPillars(box, panel.getCycleCount(), panel.getSpawnMultiplier());
         }
+        preparedPairs = null;
+    }
 
-        // create pillars at intervals, each with a random gap position and a fixed gap height
+    // creates pillars at intervals, each with a random gap position and a fixed gap height. the stress
+    // multiplier packs that many times more pillars into the same stretch, so the attack lasts as long
+    private ArrayList<int[]> buildPillars(Rectangle box, int cycle, int multiplier) {
+        ArrayList<int[]> result;
+        int numberOfPillars;
+        int x;
+        int gapY;
+        int gapHeight;
+
+        result = new ArrayList<>();
+        numberOfPillars = Difficulty.value(8, 16, cycle) * multiplier;
         for (int i = 0; i < numberOfPillars; i++) {
-            x = box.x - (i * 500) - 200;
+            x = box.x - (i * 500 / multiplier) - 200;
             gapY = box.y + rand.nextInt(box.height - 100);
             gapHeight = 80; 
 
-            p = new int[] { x, gapY, gapHeight };
-            pairs.add(p);
+            result.add(new int[] { x, gapY, gapHeight });
         }
+        return result;
     }
 
-    // updates the logic each frame: moves pillars, checks collisions and other game logic
+    // updates the logic each frame: moves pillars and removes the ones that left the box
     @Override
     public void execute() {
         long now;
         Rectangle box;
-
-        now = System.currentTimeMillis();
-        box = panel.getBattleBox();
-
         Iterator<int[]> it;
         int[] p;
 
-        // define all the hitboxes for collision detection
-        Rectangle playerRect;
-        Rectangle topRect;
-        Rectangle bottomRect;
+        now = panel.getGameTime();
+        box = panel.getBattleBox();
 
-        // move each pillar, detect collisions, and remove if out of bounds.
+        // move each pillar and remove it if out of bounds.
         it = pairs.iterator();
         while (it.hasNext()) {
             p = it.next();
             p[0] += (int) (rectSpeed * panel.getBossSpeedModifier());
 
-            playerRect = panel.getPlayer().getHitbox();
-
-            topRect = new Rectangle(p[0], box.y, rectWidth, p[1] - box.y);
-            bottomRect = new Rectangle(p[0],p[1] + p[2],rectWidth,box.y + box.height - (p[1] + p[2]));
-
-            // check collision with the player
-            if (topRect.intersects(playerRect) || bottomRect.intersects(playerRect)) {
-                panel.decreasePlayerHP(damage);
-                if (panel.getPlayer().isDead()) {
-                    finished = true;
-                }
-            }
-
             // remove pillars that have moved out of bounds
             if (p[0] > box.x + box.width + 200) {
                 it.remove();
@@ -125,27 +142,58 @@ public class MovingGapAttack extends AttackPattern {
         // finish the attack phase if duration has passed and all pillars are cleared
         if (now - startTime > duration && pairs.isEmpty()) {
             finished = true;
-            panel.getBullets().clear();
         }
     }
 
+    @Override
+    // returns the number of pillars on screen or still to come
+    public int getEntityCount() {
+        return pairs.size();
+    }
+
+    @Override
+    // checks if the player touches the top or bottom part of any pillar
+    public int getHazardDamage(Rectangle playerRect) {
+        Rectangle box;
+        Rectangle topRect;
+        Rectangle bottomRect;
+
+        box = panel.getBattleBox();
+        for (int[] p : pairs) {
+            topRect = new Rectangle(p[0], box.y, rectWidth, p[1] - box.y);
+            bottomRect = new Rectangle(p[0],p[1] + p[2],rectWidth,box.y + box.height - (p[1] + p[2]));
+            if (topRect.intersects(playerRect) || bottomRect.intersects(playerRect)) {
+                return damage;
+            }
+        }
+        return 0;
+    }
+
+    @Override
     // draw the pillars for the attack phase
     public void drawAttack(Graphics g) {
         Rectangle box = panel.getBattleBox();
         int topHeight;
         int bottomHeight;
 
+        if (!imageLoaded || attackImage == null) {
+            return;
+        }
+        // made while the dialog was showing, they are only looked up here again if the battle box changed since
+        if (topSprite == null || topSprite.getHeight() != box.height) {
+            topSprite = getPillarSprite(true, box.height);
+            bottomSprite = getPillarSprite(false, box.height);
+        }
+
         for (int[] p : pairs) {
-            if (imageLoaded && attackImage != null) {
-                topHeight = p[1] - box.y;
-                bottomHeight = box.y + box.height - (p[1] + p[2]);
+            topHeight = p[1] - box.y;
+            bottomHeight = box.y + box.height - (p[1] + p[2]);
 
-                // draw top rectangle using attackImage
-                g.drawImage(attackImage,p[0], box.y,p[0] + rectWidth, box.y + topHeight,0, 0,attackImage.getWidth(panel), attackImage.getHeight(panel) / 2,panel);
+            // draw top rectangle using attackImage
+            topSprite.draw(g, p[0], box.y, rectWidth, topHeight);
 
-                // draw bottom rectangle using attackImage
-                g.drawImage(attackImage,p[0], p[1] + p[2],p[0] + rectWidth, p[1] + p[2] + bottomHeight,0, attackImage.getHeight(panel) / 2,attackImage.getWidth(panel), attackImage.getHeight(panel),panel);
-            }
+            // draw bottom rectangle using attackImage
+            bottomSprite.draw(g, p[0], p[1] + p[2], rectWidth, bottomHeight);
         }
     }
 }
@@ -0,0 +1,160 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class streams one music track into the AudioMixer. A small background thread reads the
+ * file a chunk at a time, converts it to the mixer's format and writes it into a fixed-size ring buffer,
+ * and the mixer thread reads from the other end. When a looping track reaches the end of the file it is
+ * reopened while the ring buffer still holds sound, so the loop has no gap. Only the ring buffer is kept
+ * in memory, no matter how long the track is.
+ */
+import java.io.File;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+public class MusicStream implements Runnable {
+    private static final int RING_FRAMES = 16384; // about 0.37 seconds of sound, must be a power of two
+    private static final int CHUNK_BYTES = 8192; // bytes read from the file at a time
+    private static final int FILL_WAIT = 20; // milliseconds to wait when the ring buffer is full
+
+    private String track;
+    private boolean loop;
+
+    // the ring buffer, written only by the streaming thread and read only by the mixer thread
+    private short[] ring = new short[RING_FRAMES * 2];
+    private volatile long written = 0; // samples written in total
+    private volatile long read = 0; // samples read in total
+    private volatile boolean ended = false; // set once a non-looping track has been fully written
+    private volatile boolean closed = false;
+
+    private Thread thread;
+    private byte[] chunk = new byte[CHUNK_BYTES];
+
+    // creates the stream, call start() to begin reading the file
+    public MusicStream(String track, boolean loop) {
+        this.track = track;
+        this.loop = loop;
+    }
+
+    // starts the streaming thread
+    public void start() {
+        thread = new Thread(this, "music-stream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // the streaming thread: keeps the ring buffer full until the track ends or the stream is closed
+    public void run() {
+        AudioInputStream stream;
+
+        stream = open();
+        while (!closed && stream != null) {
+            if (!fill(stream)) {
+                // end of the file, start over straight away if the track loops
+                close(stream);
+                stream = loop ? open() : null;
+            }
+        }
+        close(stream);
+        ended = true;
+    }
+
+    // opens the track converted to the mixer's format, or returns null if it can't be read
+    private AudioInputStream open() {
+        AssetArchive archive;
+        AudioInputStream stream;
+
+        try {
+            archive = AssetArchive.get();
+            stream = archive != null ? archive.openSound(track) : null;
+            if (stream == null) {
+                stream = AudioSystem.getAudioInputStream(new File(track));
+            }
+            return AudioSystem.getAudioInputStream(AudioMixer.FORMAT, stream);
+        } catch (Exception e) {
+            System.out.println("Error opening music track:" + e.getMessage());
+            return null;
+        }
+    }
+
+    // closes a file stream, ignoring errors
+    private void close(AudioInputStream stream) {
+        try {
+            if (stream != null) {
+                stream.close();
+            }
+        } catch (Exception e) {
+            // nothing else to do, the stream is being thrown away
+        }
+    }
+
+    // reads one chunk into the ring buffer, waiting while it's full. returns false at the end of the file
+    private boolean fill(AudioInputStream stream) {
+        int count;
+        int samples;
+        long w;
+
+        // wait for the mixer to make room for a whole chunk
+        while (!closed && ring.length - (written - read) < CHUNK_BYTES / 2) {
+            try {
+                Thread.sleep(FILL_WAIT);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+        if (closed) {
+            return true;
+        }
+
+        try {
+            count = stream.read(chunk, 0, chunk.length);
+        } catch (Exception e) {
+            System.out.println("Error reading music track:" + e.getMessage());
+            return false;
+        }
+        if (count <= 0) {
+            return false;
+        }
+
+        // convert the little-endian bytes into samples at the write end of the ring
+        samples = count / 2;
+        w = written;
+        for (int i = 0; i < samples; i++) {
+            ring[(int) ((w + i) & (ring.length - 1))] = (short) ((chunk[i * 2] & 0xff) | (chunk[i * 2 + 1] << 8));
+        }
+        written = w + samples;
+        return true;
+    }
+
+    // adds up to mix.length samples to the mix at the given channel gains, called by the mixer thread.
+    // if the stream hasn't caught up the rest is left silent instead of waiting
+    public void mixInto(int[] mix, float leftGain, float rightGain) {
+        long r;
+        int available;
+        int index;
+
+        r = read;
+        available = (int) Math.min(written - r, mix.length);
+        for (int i = 0; i + 1 < available; i += 2) {
+            index = (int) ((r + i) & (ring.length - 1));
+            mix[i] += (int) (ring[index] * leftGain);
+            mix[i + 1] += (int) (ring[index + 1] * rightGain);
+        }
+        read = r + (available & ~1);
+    }
+
+    // checks if a non-looping track has finished playing
+    public boolean isFinished() {
+        return ended && read >= written;
+    }
+
+    // stops the streaming thread
+    public void close() {
+        closed = true;
+    }
+
+    // returns the size of the ring buffer in bytes, which is all the memory the track uses
+    public static int getBufferBytes() {
+        return RING_FRAMES * 4;
+    }
+}
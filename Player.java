@@ -30,6 +30,10 @@ public class Player {
     private BufferedImage shipImage;
     private BufferedImage flashShipImage;
 
+    // the atlas sprites of the images above, looked up when the image changes instead of on every frame
+    private SpriteAtlas.Sprite sprite;
+    private SpriteAtlas.Sprite flashSprite;
+
     // collection of consumable items the player holds
     private ArrayList<Item> items;
     private int selectedItemIndex = 0;
@@ -38,6 +42,13 @@ public class Player {
     private boolean shieldActive = false;
     private int shieldTurns = 0;
 
+    // variables for grazing (bullets that pass close to the player without hitting)
+    private static final int GRAZE_DISTANCE = 20; // how many pixels outside the hitbox still count as a graze
+    private static final int GRAZES_PER_BOOST = 5; // grazes needed for +1 attack boost
+    private static final int MAX_GRAZE_BOOST = 10; // cap on the attack boost earned from grazing per turn
+    private int grazeCount = 0;
+    private int grazeBoostEarned = 0;
+
     // constructor for a Player with configured values
     public Player(int x, int y, int width, int height, int hp, BufferedImage normalImg, BufferedImage flashImg, BufferedImage heartImg, BufferedImage flashHeartImg, BufferedImage shipImg, BufferedImage flashShipImg) {
         this.hitbox = new Rectangle(x, y, width, height);
@@ -50,19 +61,32 @@ public class Player {
         this.shipImage = shipImg;
         this.flashShipImage = flashShipImg;
 
+        // pack the jet into the atlas now too, so switching to it never packs during a frame
+        SpriteAtlas.get(shipImg, width, height);
+        SpriteAtlas.get(flashShipImg, width, height);
+        updateSprites();
+
         items = new ArrayList<>();
     }
 
+    // looks up the atlas sprites of the current images at the hitbox's size
+    private void updateSprites() {
+        sprite = SpriteAtlas.get(image, hitbox.width, hitbox.height);
+        flashSprite = SpriteAtlas.get(flashImage, hitbox.width, hitbox.height);
+    }
+
     // method to reset to heart image
     public void resetToHeartImage() {
         this.image = heartImage;
         this.flashImage = flashHeartImage;
+        updateSprites();
     }
     
     // method to set to ship image
     public void setToShipImage() {
         this.image = shipImage;
         this.flashImage = flashShipImage;
+        updateSprites();
     }
 
     // initializes the player's inventory with a default set of items.
@@ -100,20 +124,78 @@ public class Player {
     // sets the player's attack buff
     public void setAttackBuff(int buffValue){
         nextAttackBoost = buffValue;
+        grazeCount = 0;
+        grazeBoostEarned = 0;
+    }
+
+    // checks a bullet that missed the player this tick. a bullet inside the graze ring is only marked, since
+    // it may still hit, and the graze counts once it leaves the ring again without having hit.
+    // uses squared distances so no square root is needed, and each bullet is only counted once
+    public boolean checkGraze(Bullet b) {
+        int dx;
+        int dy;
+        int reach;
+
+        if (b.isGrazed()) {
+            return false;
+        }
+
+        // distance between the centers of the hitbox and the bullet
+        dx = b.x - (hitbox.x + hitbox.width / 2);
+        dy = b.y - (hitbox.y + hitbox.height / 2);
+        reach = hitbox.width / 2 + b.getSize() / 2 + GRAZE_DISTANCE;
+
+        if (dx * dx + dy * dy <= reach * reach) {
+            b.markNear();
+            return false;
+        }
+        if (!b.isNear()) {
+            return false;
+        }
+        return awardGraze(b);
+    }
+
+    // counts the graze of a bullet that came close and is being removed (off screen or into a wall)
+    // without ever hitting the player
+    public boolean finishGraze(Bullet b) {
+        if (b.isGrazed() || !b.isNear()) {
+            return false;
+        }
+        return awardGraze(b);
+    }
+
+    // counts a graze, and charges up the next attack every few grazes
+    private boolean awardGraze(Bullet b) {
+        b.markGrazed();
+        grazeCount++;
+
+        // every few grazes charge up the next attack
+        if (grazeCount % GRAZES_PER_BOOST == 0 && grazeBoostEarned < MAX_GRAZE_BOOST) {
+            nextAttackBoost++;
+            grazeBoostEarned++;
+        }
+        return true;
+    }
+
+    // returns how many bullets the player has grazed
+    public int getGrazeCount() {
+        return grazeCount;
     }
 
     // sets the player image
     public void setImage(BufferedImage img) {
         this.image = img;
+        updateSprites();
     }
 
     // sets the player flash image
     public void setFlashImage(BufferedImage img) {
         this.flashImage = img;
+        updateSprites();
     }
 
-    // damage the player
-    public void damage(int amount) {
+    // damage the player, returns true if the hit landed (it didn't during the invincibility frames)
+    public boolean damage(int amount) {
         long now;
         
         now = System.currentTimeMillis();
@@ -126,7 +208,6 @@ public class Player {
         // check for iframes
         if (now > invincibleUntil) {
             hp -= amount;
-            GamePanel.playSoundEffect("Sounds/damagetaken.wav");
 
             if (hp < 0) {
                 hp = 0;
@@ -144,7 +225,9 @@ public class Player {
                     shieldActive = false;
                 }
             }
+            return true;
         }
+        return false;
     }
 
     // returns whether the player is dead
@@ -152,42 +235,28 @@ public class Player {
         return hp <= 0;
     }
 
-    // moves the player by the given deltas, and ensures player stays within box
-    public void move(int dx, int dy, Rectangle battleBox) {
-        hitbox.x += dx;
-        hitbox.y += dy;
-
-        if (hitbox.x < battleBox.x) {
-            hitbox.x = battleBox.x;
-        }
-        if (hitbox.y < battleBox.y) {
-            hitbox.y = battleBox.y;
-        }
-        if (hitbox.x + hitbox.width > battleBox.x + battleBox.width) {
-            hitbox.x = battleBox.x + battleBox.width - hitbox.width;
-        }
-        if (hitbox.y + hitbox.height > battleBox.y + battleBox.height) {
-            hitbox.y = battleBox.y + battleBox.height - hitbox.height;
-        }
+    // moves the player by the given deltas, and ensures player stays within the arena
+    public void move(int dx, int dy, Arena arena) {
+        arena.move(hitbox, dx, dy);
     }
 
-    // center player within given battle box
-    public void centerInBox(Rectangle battleBox) {
-        hitbox.x = battleBox.x + battleBox.width / 2 - hitbox.width / 2;
-        hitbox.y = battleBox.y + battleBox.height / 2 - hitbox.height / 2;
+    // center player within the given arena, or as close to the center as the arena's shape allows
+    public void centerInArena(Arena arena) {
+        Rectangle bounds = arena.getBounds();
+        arena.placeNear(hitbox, bounds.x + bounds.width / 2, bounds.y + bounds.height / 2);
     }
 
     // draw the player, including the flashing effect if damage is taken
     public void draw(Graphics g) {
-        if (image != null && flashImage != null) {
+        if (sprite != null && flashSprite != null) {
             if (flashing) {
                 if ((flashTimer / 5) % 2 == 0) {
-                    g.drawImage(image, hitbox.x, hitbox.y, hitbox.width, hitbox.height, null);
+                    sprite.draw(g, hitbox.x, hitbox.y);
                 } else {
-                    g.drawImage(flashImage, hitbox.x, hitbox.y, hitbox.width, hitbox.height, null);
+                    flashSprite.draw(g, hitbox.x, hitbox.y);
                 }
             } else {
-                g.drawImage(image, hitbox.x, hitbox.y, hitbox.width, hitbox.height, null);
+                sprite.draw(g, hitbox.x, hitbox.y);
             }
         } else {
             if (flashing && flashTimer % 4 < 2) {
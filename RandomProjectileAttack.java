@@ -6,7 +6,6 @@
 * The attack pattern also changes depending on the amount of cycles the boss has done through his attack pattersns.
 */
 
-import java.util.Iterator;
 import java.util.Random;
 import java.awt.*;
 
@@ -20,66 +19,59 @@ public class RandomProjectileAttack extends AttackPattern {
     private int damage = 10; 
     private int speedMin = 3; 
     private int speedMax = 4; 
+    private static final int BULLET_SIZE = 35;
 
     // constructor for the HomingProjectileAttack with the specified image & game panel
     public RandomProjectileAttack(GamePanel panel, Image projectileImage) {
         super(panel);
         this.projectileImage = projectileImage;
+        SpriteAtlas.get(projectileImage, BULLET_SIZE, BULLET_SIZE); // packed now, so the first bullet doesn't have to
+    }
+
+    @Override
+    // method that puts the attack pattern back into its starting state for a new game
+    public void reset() {
+        super.reset();
+        projectilesSpawned = 0;
     }
 
     // method that initializes the attack pattern
     public void initialize() {
         projectilesSpawned = 0;
-        lastSpawnTime = System.currentTimeMillis();
+        lastSpawnTime = panel.getGameTime();
         finished = false;
 
-        // If cycle >= 1 => make it even harder
-        if (panel.getCycleCount() >= 1) {
-            maxProjectiles += 100; // spawn more
-        }
+        // spawn more projectiles the more cycles have been completed
+        maxProjectiles = Difficulty.value(100, 200, panel.getCycleCount()) * panel.getSpawnMultiplier();
     }
 
     // method that executes/runs the attack pattern
     public void execute() {
         long now;
         Rectangle battleBox;
-        Iterator<Bullet> it;
-        Bullet bullet;
 
-        now = System.currentTimeMillis();
+        now = panel.getGameTime();
         battleBox = panel.getBattleBox();
         
-        // spawns the projectile based on the time in milliseconds
+        // spawns the projectile based on the time in milliseconds, only counting it if the panel accepted it
+        // (the stress test multiplier spawns several at once)
         if (now - lastSpawnTime > spawnInterval && projectilesSpawned < maxProjectiles) {
-            spawnRandomProjectile(battleBox);
-            projectilesSpawned++;
-            lastSpawnTime = now;
-        }
-        
-        // clears up the projectiles if they're out of pounds
-        it = panel.getBullets().iterator();
-        while (it.hasNext()) {
-            bullet = it.next();
-            bullet.update();
-            if (bullet.isOutOfBounds(panel.getWidth(), panel.getHeight(), battleBox)) {
-                it.remove(); // delete bullet
-            } else if (bullet.getBounds().intersects(panel.getPlayer().getHitbox())) { // if projectile hits player
-                panel.decreasePlayerHP(bullet.getDamage()); // depletes player HP based off the damage the bullet does
-                it.remove();
-                if (panel.getPlayer().isDead()) {
-                    finished = true; // if player dies stop the attack
+            for (int i = 0; i < panel.getSpawnMultiplier(); i++) {
+                if (spawnRandomProjectile(battleBox)) {
+                    projectilesSpawned++;
                 }
             }
+            lastSpawnTime = now;
         }
         
-        // caps the # of projectiles
-        if (projectilesSpawned >= maxProjectiles && panel.getBullets().isEmpty()) {
+        // caps the # of projectiles, the panel moves and removes them so only this pattern's live ones are counted
+        if (projectilesSpawned >= maxProjectiles && liveBullets == 0) {
             finished = true;
         }
     }
     
-    // method to spawn the random projectiles
-    private void spawnRandomProjectile(Rectangle battleBox) {
+    // method to spawn the random projectiles, returns false if the panel is at its bullet limit
+    private boolean spawnRandomProjectile(Rectangle battleBox) {
         // variables for speed and position of random projectiles
         int spawnSide;
         int size;
@@ -94,7 +86,7 @@ public class RandomProjectileAttack extends AttackPattern {
         
         spawnSide = rand.nextInt(4);
 
-        size = 35;
+        size = BULLET_SIZE;
 
         x = 0;
         y = 0;
@@ -131,6 +123,6 @@ public class RandomProjectileAttack extends AttackPattern {
         
         // spawn the bullet after randomization
         newBullet = new Bullet(x, y, size, speedX, speedY, damage, projectileImage, Color.ORANGE);
-        panel.spawnBullet(newBullet);
+        return panel.spawnBullet(this, newBullet);
     }
 }
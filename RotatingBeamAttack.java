@@ -0,0 +1,356 @@
+/*
+* Author: Michael Zhang and Bryan Yao
+* Date: 2025-01-16
+* Description: This class implements a rotating beam attack pattern for the boss character.
+* Several laser beams sweep around the middle of the battle box like the hands of a clock. Each beam is
+* collided as a rotated rectangle using the separating axis test, the sin/cos values come from a lookup
+* table, and the rotated beam images are drawn once per angle and cached. A beam is collided at the same
+* cached angle it is drawn at, so what hits the player is exactly what is on screen. The attack also
+* changes based on the game's cycle count.
+*/
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+public class RotatingBeamAttack extends AttackPattern {
+    // angle lookup table, a full turn is split into ANGLE_STEPS steps
+    private static final int ANGLE_STEPS = 256;
+    private static final float[] SIN = new float[ANGLE_STEPS];
+    private static final float[] COS = new float[ANGLE_STEPS];
+
+    // number of cached beam images per full turn (only half are stored, the other half are mirrored)
+    private static final int SPRITE_ANGLES = 64;
+    private static final int STEPS_PER_SPRITE = ANGLE_STEPS / SPRITE_ANGLES;
+
+    private static final long WARNING_TIME = 1200;
+    private static final int BEAM_WIDTH = 24;
+
+    static {
+        for (int i = 0; i < ANGLE_STEPS; i++) {
+            SIN[i] = (float) Math.sin(2 * Math.PI * i / ANGLE_STEPS);
+            COS[i] = (float) Math.cos(2 * Math.PI * i / ANGLE_STEPS);
+        }
+    }
+
+    private Image laserImage;
+    private long startTime;
+    private int duration = 8000;
+    private int damage = 25;
+    private boolean warning = true;
+
+    // beam angles (in table steps) and how many steps they turn each tick
+    private float[] angles;
+    private float spin;
+    private int beamLength;
+
+    // cached rotated beam images and where the pivot point sits inside each one
+    private BufferedImage[] sprites;
+    private int[] pivotX;
+    private int[] pivotY;
+    private int spriteLength = -1;
+
+    // constructor method
+    public RotatingBeamAttack(GamePanel panel, Image laserImage) {
+        super(panel);
+        this.laserImage = laserImage;
+    }
+
+    @Override
+    // method that turns the beams back into warning lines for a new game, the cached images are kept
+    public void reset() {
+        super.reset();
+        warning = true;
+    }
+
+    @Override
+    // method that drops the cached beam images
+    public void dispose() {
+        sprites = null;
+        pivotX = null;
+        pivotY = null;
+        spriteLength = -1;
+    }
+
+    @Override
+    // method that draws the beam images for the next phase in the background
+    protected void prepareLayout(Rectangle box, int cycle, int multiplier) {
+        if (beamLengthFor(box) != spriteLength) {
+            buildSprites(beamLengthFor(box));
+        }
+    }
+
+    @Override
+    // method that returns the sounds played while this attack runs
+    public String[] getSoundPaths() {
+        return new String[]{"Sounds/normalcharge.wav", "Sounds/fastcharge.wav", "Sounds/normallaser.wav"};
+    }
+
+    // method that initializes the attack pattern
+    public void initialize() {
+        Rectangle box;
+        int beamCount;
+
+        panel.getBullets().clear(); // clear screen
+        finished = false;
+        startTime = panel.getGameTime();
+        warning = true;
+
+        // the more cycles have been completed, the more beams there are and the faster they turn
+        beamCount = Difficulty.value(2, 3, panel.getCycleCount()) * panel.getSpawnMultiplier();
+        spin = (float) Difficulty.value(0.6, 0.9, panel.getCycleCount());
+        duration = Difficulty.value(8000, 10000, panel.getCycleCount());
+        damage = Difficulty.value(25, 30, panel.getCycleCount());
+
+        if (panel.getCycleCount() >= 1) {
+            panel.playSoundEffect("Sounds/fastcharge.wav");
+        } else {
+            panel.playSoundEffect("Sounds/normalcharge.wav");
+        }
+
+        // spread the beams evenly around the circle
+        angles = new float[beamCount];
+        for (int i = 0; i < beamCount; i++) {
+            angles[i] = (float) i * ANGLE_STEPS / beamCount;
+        }
+
+        // the images are normally drawn during the dialog already, see prepareLayout
+        box = panel.getBattleBox();
+        beamLength = beamLengthFor(box);
+        if (beamLength != spriteLength) {
+            buildSprites(beamLength);
+        }
+    }
+
+    // beams reach from the center of the box to its corners
+    private static int beamLengthFor(Rectangle box) {
+        return (int) Math.ceil(Math.sqrt(box.width * box.width + box.height * box.height) / 2);
+    }
+
+    @Override
+    // the beams turn around the middle of the box, so the player moves around a ring
+    public Arena.Shape getArenaShape() {
+        return Arena.Shape.RING;
+    }
+
+    // draws the beam once at each cached angle so no rotation is needed while playing
+    private void buildSprites(int length) {
+        BufferedImage strip;
+        Graphics2D g2d;
+        int tileLength;
+        double angle;
+        double cos;
+        double sin;
+        double minX;
+        double minY;
+        double maxX;
+        double maxY;
+        double[] cornersX;
+        double[] cornersY;
+        double rx;
+        double ry;
+        int w;
+        int h;
+
+        // straight beam pointing to the right, made by tiling the laser image along its length. the images are
+        // in the screen's pixel format, so drawing them is a plain copy
+        strip = AssetManager.createCompatibleImage(length, BEAM_WIDTH, Transparency.TRANSLUCENT);
+        g2d = strip.createGraphics();
+        if (laserImage != null) {
+            tileLength = Math.max(1, laserImage.getHeight(null) * BEAM_WIDTH / laserImage.getWidth(null));
+            for (int tx = 0; tx < length; tx += tileLength) {
+                // turn the vertical laser image on its side so it runs along the beam
+                g2d.drawImage(laserImage, new AffineTransform(0, (double) BEAM_WIDTH / laserImage.getWidth(null),
+                        (double) tileLength / laserImage.getHeight(null), 0, tx, 0), null);
+            }
+        } else {
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, length, BEAM_WIDTH);
+        }
+        g2d.dispose();
+
+        sprites = new BufferedImage[SPRITE_ANGLES / 2];
+        pivotX = new int[SPRITE_ANGLES / 2];
+        pivotY = new int[SPRITE_ANGLES / 2];
+        cornersX = new double[]{0, length, length, 0};
+        cornersY = new double[]{-BEAM_WIDTH / 2.0, -BEAM_WIDTH / 2.0, BEAM_WIDTH / 2.0, BEAM_WIDTH / 2.0};
+
+        for (int i = 0; i < sprites.length; i++) {
+            angle = 2 * Math.PI * i / SPRITE_ANGLES;
+            cos = Math.cos(angle);
+            sin = Math.sin(angle);
+
+            // find the bounding box of the rotated beam
+            minX = 0;
+            minY = 0;
+            maxX = 0;
+            maxY = 0;
+            for (int c = 0; c < 4; c++) {
+                rx = cornersX[c] * cos - cornersY[c] * sin;
+                ry = cornersX[c] * sin + cornersY[c] * cos;
+                minX = Math.min(minX, rx);
+                minY = Math.min(minY, ry);
+                maxX = Math.max(maxX, rx);
+                maxY = Math.max(maxY, ry);
+            }
+            w = (int) Math.ceil(maxX - minX) + 1;
+            h = (int) Math.ceil(maxY - minY) + 1;
+            pivotX[i] = (int) Math.round(-minX);
+            pivotY[i] = (int) Math.round(-minY);
+
+            sprites[i] = AssetManager.createCompatibleImage(w, h, Transparency.TRANSLUCENT);
+            g2d = sprites[i].createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.translate(pivotX[i], pivotY[i]);
+            g2d.rotate(angle);
+            g2d.drawImage(strip, 0, -BEAM_WIDTH / 2, null);
+            g2d.dispose();
+        }
+        spriteLength = length;
+    }
+
+    // turns the beams once they are switched on
+    public void execute() {
+        long now;
+
+        now = panel.getGameTime();
+
+        // the beams only show a warning line for a short time before they turn on
+        if (warning) {
+            if (now - startTime > WARNING_TIME) {
+                warning = false;
+                panel.playSoundEffect("Sounds/normallaser.wav");
+            }
+            return;
+        }
+
+        // turn every beam, keeping the angle inside the table
+        for (int i = 0; i < angles.length; i++) {
+            angles[i] += spin * panel.getBossSpeedModifier();
+            if (angles[i] >= ANGLE_STEPS) {
+                angles[i] -= ANGLE_STEPS;
+            }
+        }
+
+        if (now - startTime > WARNING_TIME + duration) {
+            finished = true;
+        }
+    }
+
+    @Override
+    // returns the number of beams
+    public int getEntityCount() {
+        return angles == null ? 0 : angles.length;
+    }
+
+    @Override
+    // damages the player if any switched on beam touches their hitbox
+    public int getHazardDamage(Rectangle playerRect) {
+        Rectangle box;
+        int cx;
+        int cy;
+
+        if (warning) {
+            return 0;
+        }
+        box = panel.getBattleBox();
+        cx = box.x + box.width / 2;
+        cy = box.y + box.height / 2;
+        for (int i = 0; i < angles.length; i++) {
+            if (beamHits(cx, cy, snapAngle(angles[i]), playerRect)) {
+                return damage;
+            }
+        }
+        return 0;
+    }
+
+    // returns the table step of the cached angle closest to the given angle, the angle the beam is drawn at
+    private static int snapAngle(float angle) {
+        int spriteIndex;
+
+        spriteIndex = (((int) angle & (ANGLE_STEPS - 1)) + STEPS_PER_SPRITE / 2) / STEPS_PER_SPRITE;
+        return (spriteIndex % SPRITE_ANGLES) * STEPS_PER_SPRITE;
+    }
+
+    // separating axis test between a beam (a rotated rectangle) and the player's hitbox
+    private boolean beamHits(int px, int py, int angleIndex, Rectangle r) {
+        float ux;
+        float uy;
+        float halfLength;
+        float halfWidth;
+        float ex;
+        float ey;
+        float dx;
+        float dy;
+
+        // the beam's direction (u) and its normal (-uy, ux)
+        ux = COS[angleIndex];
+        uy = SIN[angleIndex];
+        halfLength = beamLength / 2f;
+        halfWidth = BEAM_WIDTH / 2f;
+
+        // vector from the center of the hitbox to the center of the beam
+        ex = r.width / 2f;
+        ey = r.height / 2f;
+        dx = (px + ux * halfLength) - (r.x + ex);
+        dy = (py + uy * halfLength) - (r.y + ey);
+
+        // world x and y axes
+        if (Math.abs(dx) > halfLength * Math.abs(ux) + halfWidth * Math.abs(uy) + ex) {
+            return false;
+        }
+        if (Math.abs(dy) > halfLength * Math.abs(uy) + halfWidth * Math.abs(ux) + ey) {
+            return false;
+        }
+        // the beam's own axes
+        if (Math.abs(dx * ux + dy * uy) > halfLength + ex * Math.abs(ux) + ey * Math.abs(uy)) {
+            return false;
+        }
+        if (Math.abs(-dx * uy + dy * ux) > halfWidth + ex * Math.abs(uy) + ey * Math.abs(ux)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    // draw the beams, or thin warning lines before they turn on
+    public void drawAttack(Graphics g) {
+        Rectangle box;
+        Graphics2D g2d;
+        int cx;
+        int cy;
+        int angleIndex;
+        int spriteIndex;
+        int ox;
+        int oy;
+
+        box = panel.getBattleBox();
+        cx = box.x + box.width / 2;
+        cy = box.y + box.height / 2;
+
+        g2d = (Graphics2D) g.create();
+        g2d.setClip(box); // set clipping region to box, so beams dont go outside
+
+        for (float a : angles) {
+            angleIndex = (int) a & (ANGLE_STEPS - 1);
+            if (warning) {
+                g2d.setColor(Color.YELLOW);
+                g2d.drawLine(cx, cy, cx + (int) (COS[angleIndex] * beamLength), cy + (int) (SIN[angleIndex] * beamLength));
+                continue;
+            }
+
+            // pick the closest cached angle (the one the beam collides at). angles in the second half of the
+            // turn reuse the image of the opposite angle, drawn from the far end of the beam instead of the pivot
+            angleIndex = snapAngle(a);
+            spriteIndex = angleIndex / STEPS_PER_SPRITE;
+            ox = cx;
+            oy = cy;
+            if (spriteIndex >= SPRITE_ANGLES / 2) {
+                spriteIndex -= SPRITE_ANGLES / 2;
+                ox = cx + (int) (COS[angleIndex] * beamLength);
+                oy = cy + (int) (SIN[angleIndex] * beamLength);
+            }
+            g2d.drawImage(sprites[spriteIndex], ox - pivotX[spriteIndex], oy - pivotY[spriteIndex], null);
+        }
+        g2d.dispose();
+    }
+}
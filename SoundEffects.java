@@ -0,0 +1,301 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class plays the game's music and sound effects through one shared AudioMixer. Each
+ * file is decoded once and normalized to 16-bit mono at the mixer's sample rate, whatever format it was
+ * authored in, then every play just hands the cached samples to a mixer voice. Effects have a priority, so when too many sounds
+ * overlap the unimportant ones (like bullets) give way to the important ones (like taking damage). Music
+ * is never decoded up front, it is streamed from the file and crossfaded when the track changes. The game
+ * never calls the mixer directly, it only posts commands to a queue that the mixer thread runs, so playing a
+ * sound costs the game loop one enqueue. Effects triggered during a tick are collected and posted together
+ * when the tick ends: the same effect triggered several times in one tick plays once (a little louder), and
+ * an effect that played too recently is skipped, so at most one command per effect is posted each tick.
+ * Decoding never happens on the mixer thread: an effect that isn't cached yet is decoded on a loader thread
+ * when it is triggered, and the mixer skips it until it is ready.
+ */
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+public class SoundEffects {
+    private static final float EFFECT_GAIN = 0.8f;
+    private static final float MUSIC_GAIN = 0.6f;
+    private static final int CROSSFADE_MILLIS = 600;
+    private static final int DEFAULT_MIN_INTERVAL = 30; // milliseconds before the same effect can play again
+    private static final float COALESCE_BOOST = 0.2f; // extra gain for every extra trigger in one tick
+    private static final float MAX_COALESCE_GAIN = 1.5f;
+
+    // effects that must always be heard, and effects that can be cut off when it gets busy
+    private static final HashMap<String, Integer> PRIORITIES = new HashMap<>();
+    static {
+        PRIORITIES.put("Sounds/damagetaken.wav", AudioMixer.PRIORITY_HIGH);
+        PRIORITIES.put("Sounds/playerbullet.wav", AudioMixer.PRIORITY_LOW);
+        PRIORITIES.put("Sounds/boxbreak.wav", AudioMixer.PRIORITY_LOW);
+        PRIORITIES.put("Sounds/hover.wav", AudioMixer.PRIORITY_LOW);
+        PRIORITIES.put("Sounds/buttonswitch.wav", AudioMixer.PRIORITY_LOW);
+    }
+
+    // the tempo of the looping music tracks in beats per minute, so attacks can line up with the beat.
+    // tracks that aren't listed have no beat grid
+    private static final HashMap<String, Double> MUSIC_BPM = new HashMap<>();
+    static {
+        MUSIC_BPM.put("Sounds/fightmusic.wav", 120.0);
+        MUSIC_BPM.put("Sounds/menumusic.wav", 100.0);
+    }
+
+    // effects that are triggered in bursts get a longer minimum interval
+    private static final HashMap<String, Integer> MIN_INTERVALS = new HashMap<>();
+    static {
+        MIN_INTERVALS.put("Sounds/playerbullet.wav", 60);
+        MIN_INTERVALS.put("Sounds/boxbreak.wav", 50);
+        MIN_INTERVALS.put("Sounds/hover.wav", 40);
+        MIN_INTERVALS.put("Sounds/damagetaken.wav", 100);
+    }
+
+    // the triggers of one effect, only used on the event thread
+    private static class Trigger {
+        String file;
+        long lastPlayed; // when the effect was last posted, in nanoseconds
+        int hits = 0; // how many times it was triggered this tick
+        float panSum = 0;
+    }
+
+    // every effect that has been triggered, and the ones waiting to be posted at the end of the tick
+    private static HashMap<String, Trigger> triggers = new HashMap<>();
+    private static ArrayList<Trigger> pending = new ArrayList<>();
+
+    // decoded sounds, in the mixer's format. sounds that failed to load are stored as empty arrays
+    private static ConcurrentHashMap<String, short[]> sounds = new ConcurrentHashMap<>();
+    private static volatile AudioMixer mixer;
+
+    // memory used by the decoded effects as authored, and as normalized mono (what is actually kept)
+    private static AtomicLong authoredBytes = new AtomicLong();
+    private static AtomicLong compactBytes = new AtomicLong();
+    private static AudioCommandQueue commands = new AudioCommandQueue(SoundEffects::execute);
+
+    // decodes effects that were triggered before they were preloaded, so the mixer thread never reads a file
+    private static ExecutorService decoder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sound-decoder");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // decodes a sound if that hasn't happened yet. safe to call from any thread, so sounds can be
+    // prepared before they are needed
+    public static void preload(String file) {
+        getSound(file);
+    }
+
+    // starts the mixer, this opens the audio line so it should not be called on the event thread.
+    // commands posted before this are run once it has started
+    public static synchronized void start() {
+        if (mixer != null) {
+            return;
+        }
+        mixer = new AudioMixer();
+        if (!mixer.start(commands)) {
+            mixer = null;
+        }
+    }
+
+    // plays an effect in the middle
+    public static void play(String file) {
+        play(file, 0);
+    }
+
+    // triggers an effect panned from -1 (left) to 1 (right), it is posted when the tick ends
+    public static void play(String file, float pan) {
+        Trigger trigger;
+        long now;
+
+        trigger = triggers.get(file);
+        if (trigger == null) {
+            trigger = new Trigger();
+            trigger.file = file;
+            trigger.lastPlayed = Long.MIN_VALUE / 2;
+            triggers.put(file, trigger);
+        }
+
+        // triggered again this tick, so it will just play louder
+        if (trigger.hits > 0) {
+            trigger.hits++;
+            trigger.panSum += pan;
+            return;
+        }
+        now = System.nanoTime();
+        if (now - trigger.lastPlayed < MIN_INTERVALS.getOrDefault(file, DEFAULT_MIN_INTERVAL) * 1000000L) {
+            return; // played too recently
+        }
+        trigger.hits = 1;
+        trigger.panSum = pan;
+        trigger.lastPlayed = now;
+        pending.add(trigger);
+
+        // not decoded yet, so decode it now on the loader thread. this time it is skipped by the mixer. patterns
+        // decode their effects in prepare(), so this is only a fallback for effects nobody loaded ahead
+        if (!sounds.containsKey(file)) {
+            decoder.execute(() -> preload(file));
+        }
+    }
+
+    // posts the effects triggered this tick, one command each. called once at the end of every tick
+    public static void flush() {
+        float gain;
+
+        for (Trigger trigger : pending) {
+            gain = Math.min(MAX_COALESCE_GAIN, 1 + COALESCE_BOOST * (trigger.hits - 1)) * EFFECT_GAIN;
+            commands.post(AudioCommandQueue.PLAY_EFFECT, trigger.file, trigger.panSum / trigger.hits, gain, false);
+            trigger.hits = 0;
+        }
+        pending.clear();
+    }
+
+    // streams a music track, crossfading from the one that is playing
+    public static void playMusic(String track, boolean loop) {
+        commands.post(AudioCommandQueue.PLAY_MUSIC, track, 0, MUSIC_GAIN, loop);
+    }
+
+    // stops every effect that is playing, along with any still waiting to be posted. the music keeps going
+    public static void stopAll() {
+        for (Trigger trigger : pending) {
+            trigger.hits = 0;
+        }
+        pending.clear();
+        commands.post(AudioCommandQueue.STOP_EFFECTS, null, 0, 0, false);
+    }
+
+    // runs a command on the mixer thread
+    private static void execute(int type, String name, float pan, float gain, boolean flag) {
+        AudioMixer m;
+        MusicStream stream;
+        short[] samples;
+
+        m = mixer;
+        if (m == null) {
+            return; // the mixer is closing
+        }
+        switch (type) {
+            case AudioCommandQueue.PLAY_EFFECT:
+                // only cached effects are played, decoding here would hold up the mix and cause underruns
+                samples = sounds.get(name);
+                if (samples != null) {
+                    m.play(samples, gain, pan, PRIORITIES.getOrDefault(name, AudioMixer.PRIORITY_NORMAL), false);
+                }
+                break;
+            case AudioCommandQueue.PLAY_MUSIC:
+                stream = new MusicStream(name, flag);
+                stream.start();
+                m.playMusic(stream, gain, CROSSFADE_MILLIS);
+                break;
+            case AudioCommandQueue.STOP_EFFECTS:
+                m.stopAll();
+                break;
+        }
+    }
+
+    // returns the cached samples of a sound, decoding them the first time
+    private static short[] getSound(String file) {
+        short[] samples;
+
+        samples = sounds.get(file);
+        if (samples != null) {
+            return samples;
+        }
+        // computeIfAbsent makes sure two threads never decode the same sound twice
+        return sounds.computeIfAbsent(file, SoundEffects::load);
+    }
+
+    // decodes a file and normalizes it to mono at the mixer's sample rate
+    private static short[] load(String file) {
+        AssetArchive archive;
+        AudioInputStream stream;
+        AudioFormat format;
+        byte[] pcm;
+        short[] samples;
+
+        try {
+            // the archive's copy is already 16-bit PCM, so it skips the decoding below
+            archive = AssetArchive.get();
+            stream = archive != null ? archive.openSound(file) : null;
+            if (stream == null) {
+                stream = AudioSystem.getAudioInputStream(new File(file));
+            }
+            format = stream.getFormat();
+
+            // compressed, unsigned or big-endian formats are converted to 16-bit signed little-endian PCM first
+            if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED || format.getSampleSizeInBits() != 16
+                    || format.isBigEndian()) {
+                format = new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false);
+                stream = AudioSystem.getAudioInputStream(format, stream);
+            }
+            pcm = stream.readAllBytes();
+            stream.close();
+        } catch (Exception e) {
+            // remembered as empty, so a missing file is only reported once
+            System.out.println("Error loading sound file:" + e.getMessage());
+            return new short[0];
+        }
+        samples = AudioMixer.convert(pcm, format);
+        authoredBytes.addAndGet(pcm.length);
+        compactBytes.addAndGet(samples.length * 2L);
+        return samples;
+    }
+
+    // closes the mixer and forgets the decoded sounds, used when the game closes
+    public static synchronized void closeAll() {
+        if (mixer != null) {
+            mixer.close();
+            mixer = null;
+        }
+        sounds.clear();
+        authoredBytes.set(0);
+        compactBytes.set(0);
+    }
+
+    // returns how many frames the mixer has played, or -1 if it isn't running
+    public static long getPlayedFrames() {
+        AudioMixer m;
+
+        m = mixer;
+        if (m == null) {
+            return -1;
+        }
+        return m.getPlayedFrames();
+    }
+
+    // returns how many frames are waiting in the audio line to be played, or 0 if the mixer isn't running
+    public static int getQueuedFrames() {
+        AudioMixer m;
+
+        m = mixer;
+        if (m == null) {
+            return 0;
+        }
+        return m.getQueuedFrames();
+    }
+
+    // returns the tempo of a music track in beats per minute, or 0 if it has no beat grid
+    public static double getMusicBpm(String track) {
+        return MUSIC_BPM.getOrDefault(track, 0.0);
+    }
+
+    // returns how many sounds are cached
+    public static int getCachedCount() {
+        return sounds.size();
+    }
+
+    // returns a short report of how much memory the decoded effects use as authored and as normalized
+    // mono, next to what 16-bit stereo at the mixer's rate would take
+    public static String getMemoryReport() {
+        return String.format("Audio memory: %d effects, %d KB as authored, %d KB as 44.1 kHz stereo, %d KB as 44.1 kHz mono (kept), "
+                + "plus %d KB per music stream", sounds.size(), authoredBytes.get() / 1024, compactBytes.get() * 2 / 1024,
+                compactBytes.get() / 1024, MusicStream.getBufferBytes() / 1024);
+    }
+}
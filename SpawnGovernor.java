@@ -0,0 +1,65 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class limits how many bullets attack patterns can spawn. It enforces a hard cap on
+ * the number of live bullets, and it keeps an average of how long each frame takes. When frames take
+ * longer than the budget, it lets fewer spawns through until the frame time recovers.
+ */
+public class SpawnGovernor {
+    private static final double MIN_ALLOWANCE = 0.1; // never throttle below 10% of the normal spawn rate
+
+    private int liveLimit;
+    private double budgetMs;
+
+    private double averageMs = 0;
+    private double allowance = 1.0; // fraction of spawn requests that are let through
+    private double credit = 0;
+    private boolean enabled = true;
+
+    // constructor for a SpawnGovernor with a live bullet cap and a frame time budget in milliseconds
+    public SpawnGovernor(int liveLimit, double budgetMs) {
+        this.liveLimit = liveLimit;
+        this.budgetMs = budgetMs;
+    }
+
+    // records how long the last frame took and adjusts how many spawns are allowed
+    public void recordFrame(long nanos) {
+        averageMs = averageMs * 0.9 + (nanos / 1e6) * 0.1;
+        if (averageMs > budgetMs) {
+            allowance = Math.max(MIN_ALLOWANCE, allowance * 0.9);
+        } else {
+            allowance = Math.min(1.0, allowance + 0.01);
+        }
+    }
+
+    // turns the governor on or off (the stress test turns it off to find the real limits)
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // checks if a new bullet may be spawned with the given number of bullets already alive
+    public boolean allowSpawn(int liveCount) {
+        if (!enabled) {
+            return true;
+        }
+        if (liveCount >= liveLimit) {
+            return false;
+        }
+        credit += allowance;
+        if (credit >= 1) {
+            credit -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    // returns the average frame time in milliseconds
+    public double getAverageMs() {
+        return averageMs;
+    }
+
+    // returns the fraction of spawns currently let through
+    public double getAllowance() {
+        return allowance;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class packs the game's sprites into a few large pages (images in the screen's pixel
+ * format), so a frame draws from one or two surfaces instead of a separate image for every bullet, laser,
+ * heart, button and the boss. A sprite is asked for once, when it is loaded or when whatever draws it is
+ * created: it is scaled to its size, copied into free space on a page, and a Sprite that remembers where
+ * it went is returned. Drawing a sprite is a 1:1 copy of that rectangle of its page.
+ * Pages are filled one shelf (a row of sprites) at a time. Images too big for a page get a page of their own.
+ * Space isn't freed sprite by sprite: once every sprite on a page is gone (its image was evicted and nothing
+ * draws it any more), the whole page is dropped the next time a new page is needed.
+ */
+import java.awt.AlphaComposite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+public class SpriteAtlas {
+    private static final int PAGE_SIZE = 1024;
+    private static final int PADDING = 1; // empty pixels between sprites
+
+    // a sprite: a rectangle of one page
+    public static class Sprite {
+        private BufferedImage page;
+        private int x, y; // where the sprite is on its page
+        private int width, height;
+        private int sx, sy, sw, sh; // the region of the source image it was made from
+
+        // draws the sprite with its top left corner at (x, y)
+        public void draw(Graphics g, int x, int y) {
+            g.drawImage(page, x, y, x + width, y + height, this.x, this.y, this.x + width, this.y + height, null);
+        }
+
+        // draws part of the sprite, starting from its top left corner, with that corner at (x, y)
+        public void draw(Graphics g, int x, int y, int width, int height) {
+            width = Math.min(width, this.width);
+            height = Math.min(height, this.height);
+            if (width > 0 && height > 0) {
+                g.drawImage(page, x, y, x + width, y + height, this.x, this.y, this.x + width, this.y + height, null);
+            }
+        }
+
+        // returns the width of the sprite
+        public int getWidth() {
+            return width;
+        }
+
+        // returns the height of the sprite
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    // a page and the shelf that is being filled on it
+    private static class Page {
+        BufferedImage image;
+        int shelfY = 0; // top of the open shelf
+        int shelfHeight = 0; // height of the tallest sprite on the open shelf
+        int cursorX = 0; // where the next sprite goes on the open shelf
+        int usedArea = 0;
+        ArrayList<WeakReference<Sprite>> placed = new ArrayList<>(); // cleared once nothing uses the sprite
+    }
+
+    private static ArrayList<Page> pages = new ArrayList<>();
+    private static int spriteCount = 0;
+
+    // the sprites made from each image. the keys are weak so the atlas doesn't keep the originals alive
+    private static WeakHashMap<Image, ArrayList<Sprite>> sprites = new WeakHashMap<>();
+
+    // returns a sprite of the whole image at its own size
+    public static Sprite get(Image image) {
+        if (image == null) {
+            return null;
+        }
+        return get(image, image.getWidth(null), image.getHeight(null));
+    }
+
+    // returns a sprite of the whole image scaled to the given size
+    public static Sprite get(Image image, int width, int height) {
+        if (image == null) {
+            return null;
+        }
+        return get(image, 0, 0, image.getWidth(null), image.getHeight(null), width, height);
+    }
+
+    // returns a sprite of a region of the image scaled to the given size, packing it into a page the first
+    // time it is asked for. returns null if there is no image
+    public static Sprite get(Image image, int sx, int sy, int sw, int sh, int width, int height) {
+        Sprite sprite;
+        BufferedImage scaled;
+
+        if (image == null || width <= 0 || height <= 0 || sw <= 0 || sh <= 0) {
+            return null;
+        }
+        sprite = find(image, sx, sy, sw, sh, width, height);
+        if (sprite != null) {
+            return sprite;
+        }
+        // the scaling happens outside the lock, only the copy into the page is locked
+        if (sx == 0 && sy == 0 && sw == width && sh == height && sw == image.getWidth(null) && sh == image.getHeight(null)) {
+            scaled = null;
+        } else {
+            scaled = SpriteCache.scale(image, sx, sy, sw, sh, width, height);
+        }
+        return add(image, sx, sy, sw, sh, width, height, scaled);
+    }
+
+    // looks for a sprite that was already made, returns null if there isn't one
+    private static synchronized Sprite find(Image image, int sx, int sy, int sw, int sh, int width, int height) {
+        ArrayList<Sprite> made;
+        Sprite sprite;
+
+        made = sprites.get(image);
+        if (made == null) {
+            return null;
+        }
+        for (int i = 0; i < made.size(); i++) {
+            sprite = made.get(i);
+            if (sprite.width == width && sprite.height == height && sprite.sx == sx && sprite.sy == sy
+                    && sprite.sw == sw && sprite.sh == sh) {
+                return sprite;
+            }
+        }
+        return null;
+    }
+
+    // copies a sprite into a page and remembers it. scaled is null when the image is used at its own size
+    private static synchronized Sprite add(Image image, int sx, int sy, int sw, int sh, int width, int height,
+            BufferedImage scaled) {
+        Sprite sprite;
+        ArrayList<Sprite> made;
+        Page page;
+        Graphics2D g2d;
+
+        sprite = find(image, sx, sy, sw, sh, width, height);
+        if (sprite != null) {
+            return sprite; // another thread made it first
+        }
+        sprite = new Sprite();
+        sprite.sx = sx;
+        sprite.sy = sy;
+        sprite.sw = sw;
+        sprite.sh = sh;
+        sprite.width = width;
+        sprite.height = height;
+
+        page = place(sprite);
+        g2d = page.image.createGraphics();
+        g2d.setComposite(AlphaComposite.Src); // replace the empty pixels rather than blend with them
+        g2d.drawImage(scaled != null ? scaled : image, sprite.x, sprite.y, null);
+        g2d.dispose();
+        page.usedArea += width * height;
+
+        made = sprites.get(image);
+        if (made == null) {
+            made = new ArrayList<>(2);
+            sprites.put(image, made);
+        }
+        made.add(sprite);
+        spriteCount++;
+        return sprite;
+    }
+
+    // finds room for a sprite, on an open shelf of an existing page or on a new page
+    private static Page place(Sprite sprite) {
+        Page page;
+        int width;
+        int height;
+
+        width = sprite.width + PADDING;
+        height = sprite.height + PADDING;
+
+        // too big for a page, it gets a page of its own
+        if (width > PAGE_SIZE || height > PAGE_SIZE) {
+            dropUnusedPages();
+            page = new Page();
+            page.image = AssetManager.createCompatibleImage(sprite.width, sprite.height, Transparency.TRANSLUCENT);
+            page.shelfY = PAGE_SIZE; // nothing else fits
+            pages.add(page);
+            sprite.page = page.image;
+            page.placed.add(new WeakReference<>(sprite));
+            return page;
+        }
+
+        for (Page p : pages) {
+            // start a new shelf if the open one is full
+            if (p.cursorX + width > PAGE_SIZE) {
+                if (p.shelfY + p.shelfHeight + height > PAGE_SIZE) {
+                    continue;
+                }
+                p.shelfY += p.shelfHeight;
+                p.shelfHeight = 0;
+                p.cursorX = 0;
+            }
+            if (p.shelfY + height <= PAGE_SIZE) {
+                putOnShelf(p, sprite, width, height);
+                return p;
+            }
+        }
+
+        // every page is full, so drop the ones nothing uses any more before making a new one
+        dropUnusedPages();
+        page = new Page();
+        page.image = AssetManager.createCompatibleImage(PAGE_SIZE, PAGE_SIZE, Transparency.TRANSLUCENT);
+        pages.add(page);
+        putOnShelf(page, sprite, width, height);
+        return page;
+    }
+
+    // drops the pages that nothing uses any more, so their memory can be reclaimed
+    private static void dropUnusedPages() {
+        for (int i = pages.size() - 1; i >= 0; i--) {
+            if (isUnused(pages.get(i))) {
+                spriteCount -= pages.get(i).placed.size();
+                pages.remove(i);
+            }
+        }
+    }
+
+    // checks if every sprite on a page is gone. the atlas only keeps its sprites while their image is
+    // alive, so this happens once the images were evicted and whatever drew them is gone too
+    private static boolean isUnused(Page page) {
+        for (WeakReference<Sprite> placed : page.placed) {
+            if (placed.get() != null) {
+                return false;
+            }
+        }
+        return !page.placed.isEmpty();
+    }
+
+    // puts a sprite at the end of a page's open shelf
+    private static void putOnShelf(Page page, Sprite sprite, int width, int height) {
+        sprite.page = page.image;
+        sprite.x = page.cursorX;
+        sprite.y = page.shelfY;
+        page.cursorX += width;
+        page.shelfHeight = Math.max(page.shelfHeight, height);
+        page.placed.add(new WeakReference<>(sprite));
+    }
+
+    // returns how many pages there are, how full they are and how much memory they use
+    public static synchronized String getReport() {
+        long bytes = 0;
+        long area = 0;
+        long used = 0;
+
+        for (Page page : pages) {
+            bytes += AssetManager.getBytes(page.image);
+            area += (long) page.image.getWidth() * page.image.getHeight();
+            used += page.usedArea;
+        }
+        return String.format("Sprite atlas: %d sprites on %d pages (%d KB), %d%% of the page area used",
+                spriteCount, pages.size(), bytes / 1024, area > 0 ? used * 100 / area : 0);
+    }
+
+    // forgets every sprite and page, used when the game closes
+    public static synchronized void clear() {
+        pages.clear();
+        sprites.clear();
+        spriteCount = 0;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class keeps pre-scaled copies of sprites, so drawing them is always a 1:1 copy instead
+ * of scaling the image on every frame. A copy is made the first time an image (or a region of it) is asked
+ * for at a size, in the screen's pixel format, and reused after that. Copies are kept per source image and
+ * are dropped along with it, so images the asset manager evicts don't stay around as scaled copies.
+ * Sprites are packed into the SpriteAtlas, which only uses scale() here to make them. The cache itself holds
+ * the two images too big to share a page: the full screen win and lose images.
+ */
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+public class SpriteCache {
+    private static final int MAX_SIZES = 16; // scaled copies kept per image, the oldest is dropped past this
+
+    // one scaled copy of a region of an image
+    private static class Sprite {
+        int sx, sy, sw, sh; // the region of the source image
+        int width, height; // the size it was scaled to
+        BufferedImage image;
+    }
+
+    // the scaled copies of each image. the keys are weak, so an image that is no longer used anywhere
+    // else is forgotten along with its copies
+    private static WeakHashMap<Image, ArrayList<Sprite>> sprites = new WeakHashMap<>();
+
+    // returns the image scaled to the given size, or the image itself if it already is that size
+    public static Image get(Image image, int width, int height) {
+        if (image == null || (image.getWidth(null) == width && image.getHeight(null) == height)) {
+            return image;
+        }
+        return get(image, 0, 0, image.getWidth(null), image.getHeight(null), width, height);
+    }
+
+    // returns a region of the image scaled to the given size. the scaling happens outside the lock, so a
+    // large image being scaled on another thread never holds up drawing
+    public static BufferedImage get(Image image, int sx, int sy, int sw, int sh, int width, int height) {
+        BufferedImage scaled;
+
+        if (image == null || width <= 0 || height <= 0 || sw <= 0 || sh <= 0) {
+            return null;
+        }
+        scaled = find(image, sx, sy, sw, sh, width, height);
+        if (scaled != null) {
+            return scaled;
+        }
+        scaled = scale(image, sx, sy, sw, sh, width, height);
+        return add(image, sx, sy, sw, sh, width, height, scaled);
+    }
+
+    // returns the image scaled to the given size if that copy has been made already, or null if it hasn't
+    public static Image getIfCached(Image image, int width, int height) {
+        if (image == null || (image.getWidth(null) == width && image.getHeight(null) == height)) {
+            return image;
+        }
+        return find(image, 0, 0, image.getWidth(null), image.getHeight(null), width, height);
+    }
+
+    // looks for a scaled copy, returns null if there isn't one
+    private static synchronized BufferedImage find(Image image, int sx, int sy, int sw, int sh, int width, int height) {
+        ArrayList<Sprite> copies;
+        Sprite sprite;
+
+        copies = sprites.get(image);
+        if (copies == null) {
+            return null;
+        }
+        // an image only ever has a few sizes, so a linear search is fastest and allocates nothing
+        for (int i = 0; i < copies.size(); i++) {
+            sprite = copies.get(i);
+            if (sprite.width == width && sprite.height == height && sprite.sx == sx && sprite.sy == sy
+                    && sprite.sw == sw && sprite.sh == sh) {
+                return sprite.image;
+            }
+        }
+        return null;
+    }
+
+    // stores a scaled copy and returns it, or returns the copy another thread stored first
+    private static synchronized BufferedImage add(Image image, int sx, int sy, int sw, int sh, int width, int height,
+            BufferedImage scaled) {
+        ArrayList<Sprite> copies;
+        Sprite sprite;
+        BufferedImage existing;
+
+        existing = find(image, sx, sy, sw, sh, width, height);
+        if (existing != null) {
+            return existing;
+        }
+        copies = sprites.get(image);
+        if (copies == null) {
+            copies = new ArrayList<>(2);
+            sprites.put(image, copies);
+        }
+        sprite = new Sprite();
+        sprite.sx = sx;
+        sprite.sy = sy;
+        sprite.sw = sw;
+        sprite.sh = sh;
+        sprite.width = width;
+        sprite.height = height;
+        sprite.image = scaled;
+        if (copies.size() >= MAX_SIZES) {
+            copies.remove(0);
+        }
+        copies.add(sprite);
+        return scaled;
+    }
+
+    // makes a scaled copy of a region of an image
+    public static BufferedImage scale(Image image, int sx, int sy, int sw, int sh, int width, int height) {
+        BufferedImage source;
+        Graphics2D g2d;
+
+        if (image instanceof BufferedImage) {
+            source = (BufferedImage) image;
+        } else {
+            source = AssetManager.createCompatibleImage(image.getWidth(null), image.getHeight(null), Transparency.TRANSLUCENT);
+            g2d = source.createGraphics();
+            g2d.drawImage(image, 0, 0, null);
+            g2d.dispose();
+        }
+        if (sx != 0 || sy != 0 || sw != source.getWidth() || sh != source.getHeight()) {
+            source = source.getSubimage(sx, sy, sw, sh);
+        }
+        return AssetManager.scale(source, width, height);
+    }
+}
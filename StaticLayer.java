@@ -0,0 +1,114 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class caches a part of the screen that rarely changes (like the background, the HP bars
+ * and the battle box) in an image, so a frame copies one image instead of drawing all of it again. The layer
+ * is only redrawn after it has been invalidated, or resized. On a screen it is kept in a VolatileImage, which
+ * lives in video memory, so the copy is done by the graphics card. Video memory can be lost (for example when
+ * the display mode changes), in that case the layer is simply drawn again. Without a screen a normal image is used.
+ */
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.VolatileImage;
+
+public class StaticLayer {
+    // draws the contents of the layer
+    public interface Painter {
+        void paint(Graphics g);
+    }
+
+    private Painter painter;
+    private Image image; // a VolatileImage on a screen, a BufferedImage without one
+    private boolean dirty = true;
+    private int redrawCount = 0;
+
+    // creates a layer drawn by the given painter
+    public StaticLayer(Painter painter) {
+        this.painter = painter;
+    }
+
+    // marks the layer as out of date, it is drawn again the next time it is used
+    public void invalidate() {
+        dirty = true;
+    }
+
+    // draws the layer at the top left of the component, redrawing it first if it is out of date
+    public void draw(Graphics g, Component owner, int width, int height) {
+        GraphicsConfiguration config;
+        VolatileImage volatileImage;
+        boolean lost;
+
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        config = owner.getGraphicsConfiguration();
+        do {
+            // video memory may have been lost or moved to another screen since the last frame
+            if (image instanceof VolatileImage) {
+                volatileImage = (VolatileImage) image;
+                switch (volatileImage.validate(config)) {
+                    case VolatileImage.IMAGE_INCOMPATIBLE:
+                        volatileImage.flush();
+                        image = null;
+                        break;
+                    case VolatileImage.IMAGE_RESTORED:
+                        dirty = true;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (image == null || image.getWidth(null) != width || image.getHeight(null) != height) {
+                if (image != null) {
+                    image.flush();
+                }
+                image = config != null ? config.createCompatibleVolatileImage(width, height, Transparency.OPAQUE)
+                        : AssetManager.createCompatibleImage(width, height, Transparency.OPAQUE);
+                dirty = true;
+            }
+            if (dirty) {
+                render(g, owner.getBackground(), width, height);
+            }
+            g.drawImage(image, 0, 0, null);
+
+            // if the video memory was lost while drawing, the layer is drawn again straight away
+            lost = image instanceof VolatileImage && ((VolatileImage) image).contentsLost();
+            if (lost) {
+                dirty = true;
+            }
+        } while (lost);
+    }
+
+    // draws the contents into the layer's image with the same settings as the frame it is shown in
+    private void render(Graphics frame, Color background, int width, int height) {
+        Graphics2D g2d;
+
+        g2d = (Graphics2D) image.getGraphics();
+        g2d.setRenderingHints(((Graphics2D) frame).getRenderingHints());
+        g2d.setColor(background);
+        g2d.fillRect(0, 0, width, height);
+        painter.paint(g2d);
+        g2d.dispose();
+        dirty = false;
+        redrawCount++;
+    }
+
+    // returns how many times the layer has been drawn, for checking that it is reused between frames
+    public int getRedrawCount() {
+        return redrawCount;
+    }
+
+    // frees the layer's image, it is made again the next time the layer is drawn
+    public void dispose() {
+        if (image != null) {
+            image.flush();
+            image = null;
+        }
+        dirty = true;
+    }
+}
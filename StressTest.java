@@ -0,0 +1,88 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class runs attack patterns headlessly with more and more bullets and prints a report
+ * of the update and draw times against the number of live bullets, stopping once a pattern can no longer
+ * fit in the 16 ms frame budget. Run with: java Main --stress [pattern name or "all"] [max multiplier]
+ */
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+public class StressTest {
+    private static final int WARMUP_TICKS = 300;
+    private static final int TICKS_PER_STEP = 600;
+    private static final int DEFAULT_MAX_MULTIPLIER = 64;
+    private static final double FRAME_BUDGET_MS = 16.0;
+
+    // runs the stress test with the given command line arguments
+    public static void run(String[] args) {
+        String patternName;
+        int maxMultiplier;
+        GamePanel panel;
+        BufferedImage frame;
+        Graphics g;
+        AttackScheduler scheduler;
+        String name;
+        FrameStats stats;
+
+        patternName = args.length > 0 ? args[0] : "all";
+        maxMultiplier = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_MULTIPLIER;
+
+        GamePanel.setSoundEnabled(false);
+        panel = GamePanel.createHeadlessSession();
+        frame = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+        scheduler = panel.getAttackScheduler();
+        stats = new FrameStats(TICKS_PER_STEP);
+
+        System.out.println(FrameStats.header());
+        for (int i = 0; i < scheduler.getPhaseCount(); i++) {
+            name = scheduler.getPhaseName(i);
+            if (!patternName.equals("all") && !patternName.equalsIgnoreCase(name)) {
+                continue;
+            }
+
+            // run the pattern once without recording so the first step isn't measuring the JIT
+            panel.setSpawnMultiplier(1);
+            panel.startStressPattern(i);
+            for (int t = 0; t < WARMUP_TICKS; t++) {
+                runFrame(panel, g, null);
+            }
+
+            for (int multiplier = 1; multiplier <= maxMultiplier; multiplier *= 2) {
+                panel.setSpawnMultiplier(multiplier);
+                panel.startStressPattern(i);
+                stats.clear();
+                for (int t = 0; t < TICKS_PER_STEP; t++) {
+                    runFrame(panel, g, stats);
+                }
+                System.out.println(stats.formatRow(name, multiplier));
+
+                if (stats.framePercentile(99) > FRAME_BUDGET_MS) {
+                    System.out.printf("  -> %s breaks the %.0f ms budget at %dx (about %d live bullets or minions)%n",
+                            name, FRAME_BUDGET_MS, multiplier, stats.maxLive());
+                    break;
+                }
+            }
+        }
+        g.dispose();
+        panel.setSpawnMultiplier(1);
+        panel.dispose();
+    }
+
+    // updates and draws one frame, recording the times if stats are given
+    private static void runFrame(GamePanel panel, Graphics g, FrameStats stats) {
+        long tickStart;
+        long paintStart;
+        long tick;
+
+        tickStart = System.nanoTime();
+        panel.runStressTick();
+        paintStart = System.nanoTime();
+        tick = paintStart - tickStart;
+        panel.renderFrame(g);
+        if (stats != null) {
+            stats.record(tick, System.nanoTime() - paintStart, panel.getLiveCount());
+        }
+    }
+}
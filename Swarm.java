@@ -0,0 +1,384 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class simulates a large swarm of minions that chase a target point. Pathfinding
+ * comes from a single shared flow field (a BFS over a coarse grid of the area), which is only rebuilt
+ * when the target moves into a different cell. Minions keep apart using a spatial hash, so each
+ * minion only looks at a capped number of nearby neighbours and the cost per minion stays constant.
+ */
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class Swarm {
+    // size of a flow field cell and a spatial hash cell in pixels
+    private static final int FIELD_CELL = 20;
+    private static final int HASH_CELL = 16;
+
+    // steering settings for the minions
+    private static final float SEPARATION_RADIUS = 14f;
+    private static final int MAX_NEIGHBOURS = 6; // neighbours checked per minion, keeps cost constant in crowds
+    private static final float MAX_SPEED = 2.5f;
+    private static final float SEPARATION_STRENGTH = 1.5f;
+    private static final float STEER_RATE = 0.25f;
+
+    public static final int MINION_SIZE = 8;
+
+    private Rectangle area;
+
+    // flow field variables, one entry per cell
+    private int cols;
+    private int rows;
+    private boolean[] blocked;
+    private int[] distance;
+    private float[] flowX;
+    private float[] flowY;
+    private int[] queue;
+    private int targetCell = -1;
+    private int fieldRebuilds = 0;
+
+    // spatial hash variables, stored as linked lists inside int arrays
+    private int hashCols;
+    private int hashRows;
+    private int[] cellHead;
+    private int[] nextInCell;
+
+    // minion positions and velocities, stored as parallel arrays instead of objects
+    private float[] x;
+    private float[] y;
+    private float[] vx;
+    private float[] vy;
+    private int count = 0;
+
+    // constructor for a Swarm inside the given area, avoiding the given obstacles
+    public Swarm(Rectangle area, ArrayList<Rectangle> obstacles, int capacity) {
+        Rectangle cellRect;
+
+        this.area = new Rectangle(area);
+
+        cols = (area.width + FIELD_CELL - 1) / FIELD_CELL;
+        rows = (area.height + FIELD_CELL - 1) / FIELD_CELL;
+        blocked = new boolean[cols * rows];
+        distance = new int[cols * rows];
+        flowX = new float[cols * rows];
+        flowY = new float[cols * rows];
+        queue = new int[cols * rows];
+
+        // mark every cell touched by an obstacle as blocked
+        cellRect = new Rectangle(0, 0, FIELD_CELL, FIELD_CELL);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                cellRect.x = area.x + c * FIELD_CELL;
+                cellRect.y = area.y + r * FIELD_CELL;
+                for (Rectangle o : obstacles) {
+                    if (o.intersects(cellRect)) {
+                        blocked[r * cols + c] = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        hashCols = (area.width + HASH_CELL - 1) / HASH_CELL;
+        hashRows = (area.height + HASH_CELL - 1) / HASH_CELL;
+        cellHead = new int[hashCols * hashRows];
+
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        nextInCell = new int[capacity];
+    }
+
+    // adds a minion at the given position, returns false if the swarm is full or the spot is blocked
+    public boolean spawn(float sx, float sy) {
+        int cell;
+
+        if (count >= x.length) {
+            return false;
+        }
+        cell = fieldCellOf(sx, sy);
+        if (cell < 0 || blocked[cell]) {
+            return false;
+        }
+
+        x[count] = sx;
+        y[count] = sy;
+        vx[count] = 0;
+        vy[count] = 0;
+        count++;
+        return true;
+    }
+
+    // moves every minion one tick towards the target point
+    public void update(int tx, int ty) {
+        int cell;
+
+        // only rebuild the flow field when the target changes cell
+        cell = fieldCellOf(tx, ty);
+        if (cell >= 0 && cell != targetCell) {
+            targetCell = cell;
+            buildFlowField(cell);
+        }
+
+        rebuildHash();
+
+        for (int i = 0; i < count; i++) {
+            steer(i, tx, ty);
+        }
+    }
+
+    // runs a BFS out from the target cell and stores the direction each cell should move in
+    private void buildFlowField(int target) {
+        int head;
+        int tail;
+        int current;
+        int cx;
+        int cy;
+        int best;
+        int bestDir;
+        int nx;
+        int ny;
+        int n;
+        float len;
+
+        // directions to the 8 neighbouring cells (the first 4 are the straight ones used by the BFS)
+        int[] dirX = {1, -1, 0, 0, 1, 1, -1, -1};
+        int[] dirY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+        Arrays.fill(distance, -1);
+        head = 0;
+        tail = 0;
+        distance[target] = 0;
+        queue[tail++] = target;
+
+        while (head < tail) {
+            current = queue[head++];
+            cx = current % cols;
+            cy = current / cols;
+            for (int d = 0; d < 4; d++) {
+                nx = cx + dirX[d];
+                ny = cy + dirY[d];
+                if (nx < 0 || ny < 0 || nx >= cols || ny >= rows) {
+                    continue;
+                }
+                n = ny * cols + nx;
+                if (!blocked[n] && distance[n] < 0) {
+                    distance[n] = distance[current] + 1;
+                    queue[tail++] = n;
+                }
+            }
+        }
+
+        // point each cell at its closest neighbour, without cutting across blocked corners
+        for (int c = 0; c < cols * rows; c++) {
+            flowX[c] = 0;
+            flowY[c] = 0;
+            if (distance[c] <= 0) {
+                continue;
+            }
+            cx = c % cols;
+            cy = c / cols;
+            best = distance[c];
+            bestDir = -1;
+            for (int d = 0; d < 8; d++) {
+                nx = cx + dirX[d];
+                ny = cy + dirY[d];
+                if (nx < 0 || ny < 0 || nx >= cols || ny >= rows) {
+                    continue;
+                }
+                n = ny * cols + nx;
+                if (distance[n] < 0 || distance[n] >= best) {
+                    continue;
+                }
+                if (d >= 4 && (blocked[cy * cols + nx] || blocked[ny * cols + cx])) {
+                    continue;
+                }
+                best = distance[n];
+                bestDir = d;
+            }
+            if (bestDir >= 0) {
+                len = (bestDir >= 4) ? 0.7071f : 1f;
+                flowX[c] = dirX[bestDir] * len;
+                flowY[c] = dirY[bestDir] * len;
+            }
+        }
+        fieldRebuilds++;
+    }
+
+    // puts every minion into its spatial hash cell
+    private void rebuildHash() {
+        int h;
+
+        Arrays.fill(cellHead, -1);
+        for (int i = 0; i < count; i++) {
+            h = hashCellOf(x[i], y[i]);
+            nextInCell[i] = cellHead[h];
+            cellHead[h] = i;
+        }
+    }
+
+    // steers one minion using the flow field and separation from its neighbours
+    private void steer(int i, int tx, int ty) {
+        int cell;
+        float desiredX;
+        float desiredY;
+        float dx;
+        float dy;
+        float distSq;
+        float len;
+        float sepX;
+        float sepY;
+        float newX;
+        float newY;
+        int hx;
+        int hy;
+        int checked;
+        int j;
+
+        // follow the flow field, or head straight for the target once in its cell
+        cell = fieldCellOf(x[i], y[i]);
+        if (cell == targetCell || cell < 0 || (flowX[cell] == 0 && flowY[cell] == 0)) {
+            dx = tx - x[i];
+            dy = ty - y[i];
+            len = (float) Math.sqrt(dx * dx + dy * dy);
+            desiredX = len > 0 ? dx / len : 0;
+            desiredY = len > 0 ? dy / len : 0;
+        } else {
+            desiredX = flowX[cell];
+            desiredY = flowY[cell];
+        }
+
+        // push away from a capped number of neighbours in the surrounding hash cells
+        sepX = 0;
+        sepY = 0;
+        checked = 0;
+        hx = (int) (x[i] - area.x) / HASH_CELL;
+        hy = (int) (y[i] - area.y) / HASH_CELL;
+        for (int oy = -1; oy <= 1 && checked < MAX_NEIGHBOURS; oy++) {
+            for (int ox = -1; ox <= 1 && checked < MAX_NEIGHBOURS; ox++) {
+                if (hx + ox < 0 || hy + oy < 0 || hx + ox >= hashCols || hy + oy >= hashRows) {
+                    continue;
+                }
+                j = cellHead[(hy + oy) * hashCols + hx + ox];
+                while (j >= 0 && checked < MAX_NEIGHBOURS) {
+                    if (j != i) {
+                        dx = x[i] - x[j];
+                        dy = y[i] - y[j];
+                        distSq = dx * dx + dy * dy;
+                        if (distSq < SEPARATION_RADIUS * SEPARATION_RADIUS && distSq > 0.0001f) {
+                            sepX += dx / distSq;
+                            sepY += dy / distSq;
+                            checked++;
+                        }
+                    }
+                    j = nextInCell[j];
+                }
+            }
+        }
+
+        // blend the new heading into the current velocity and cap the speed
+        vx[i] += ((desiredX + sepX * SEPARATION_STRENGTH) * MAX_SPEED - vx[i]) * STEER_RATE;
+        vy[i] += ((desiredY + sepY * SEPARATION_STRENGTH) * MAX_SPEED - vy[i]) * STEER_RATE;
+        len = vx[i] * vx[i] + vy[i] * vy[i];
+        if (len > MAX_SPEED * MAX_SPEED) {
+            len = MAX_SPEED / (float) Math.sqrt(len);
+            vx[i] *= len;
+            vy[i] *= len;
+        }
+
+        // move one axis at a time so minions slide along obstacles instead of sticking
+        newX = x[i] + vx[i];
+        cell = fieldCellOf(newX, y[i]);
+        if (cell >= 0 && !blocked[cell]) {
+            x[i] = newX;
+        } else {
+            vx[i] = 0;
+        }
+        newY = y[i] + vy[i];
+        cell = fieldCellOf(x[i], newY);
+        if (cell >= 0 && !blocked[cell]) {
+            y[i] = newY;
+        } else {
+            vy[i] = 0;
+        }
+    }
+
+    // checks if any minion overlaps the given rectangle, only looking at the hash cells it covers
+    public boolean touches(Rectangle r) {
+        int minX;
+        int minY;
+        int maxX;
+        int maxY;
+        int j;
+        float half;
+
+        half = MINION_SIZE / 2f;
+        minX = Math.max(0, (int) (r.x - half - area.x) / HASH_CELL);
+        minY = Math.max(0, (int) (r.y - half - area.y) / HASH_CELL);
+        maxX = Math.min(hashCols - 1, (int) (r.x + r.width + half - area.x) / HASH_CELL);
+        maxY = Math.min(hashRows - 1, (int) (r.y + r.height + half - area.y) / HASH_CELL);
+
+        for (int hy = minY; hy <= maxY; hy++) {
+            for (int hx = minX; hx <= maxX; hx++) {
+                j = cellHead[hy * hashCols + hx];
+                while (j >= 0) {
+                    if (x[j] + half > r.x && x[j] - half < r.x + r.width
+                            && y[j] + half > r.y && y[j] - half < r.y + r.height) {
+                        return true;
+                    }
+                    j = nextInCell[j];
+                }
+            }
+        }
+        return false;
+    }
+
+    // returns the flow field cell at a position, or -1 if it is outside the area
+    private int fieldCellOf(float px, float py) {
+        int c;
+        int r;
+
+        if (px < area.x || py < area.y || px >= area.x + area.width || py >= area.y + area.height) {
+            return -1;
+        }
+        c = (int) (px - area.x) / FIELD_CELL;
+        r = (int) (py - area.y) / FIELD_CELL;
+        return r * cols + c;
+    }
+
+    // returns the spatial hash cell at a position (positions are always kept inside the area)
+    private int hashCellOf(float px, float py) {
+        int c;
+        int r;
+
+        c = Math.min(hashCols - 1, Math.max(0, (int) (px - area.x) / HASH_CELL));
+        r = Math.min(hashRows - 1, Math.max(0, (int) (py - area.y) / HASH_CELL));
+        return r * hashCols + c;
+    }
+
+    // returns the number of minions in the swarm
+    public int getCount() {
+        return count;
+    }
+
+    // returns how many times the flow field has been rebuilt
+    public int getFieldRebuilds() {
+        return fieldRebuilds;
+    }
+
+    // returns the x position of a minion
+    public float getX(int i) {
+        return x[i];
+    }
+
+    // returns the y position of a minion
+    public float getY(int i) {
+        return y[i];
+    }
+
+    // removes every minion from the swarm
+    public void clear() {
+        count = 0;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class implements a swarm attack pattern where hundreds of minions pour in from
+ * the sides of the battle box and chase the player around pillars. The minions are simulated by the
+ * Swarm class, which shares one flow field between all of them. The attack also changes depending on
+ * the game's cycle count.
+ */
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Random;
+
+public class SwarmAttack extends AttackPattern {
+    private long startTime;
+    private int duration = 10000;
+    private int damage = 10;
+    private int maxMinions = 200;
+    private int spawnPerTick = 3; // minions that enter the box each tick until the max is reached
+
+    // pillar sizes
+    private static final int PILLAR_WIDTH = 30;
+    private static final int PILLAR_GAP = 90;
+
+    private ArrayList<Rectangle> obstacles = new ArrayList<>();
+    private Swarm swarm;
+
+    // pillars and an empty swarm built ahead of time for the next phase
+    private ArrayList<Rectangle> preparedObstacles;
+    private Swarm preparedSwarm;
+    private Random rand = new Random();
+
+    // constructor of attack pattern
+    public SwarmAttack(GamePanel panel) {
+        super(panel);
+    }
+
+    @Override
+    // removes the pillars and the swarm left over from the last game
+    public void reset() {
+        super.reset();
+        obstacles.clear();
+        if (swarm != null) {
+            swarm.clear();
+        }
+    }
+
+    @Override
+    // drops the pillars and the swarm's arrays
+    public void dispose() {
+        obstacles.clear();
+        swarm = null;
+    }
+
+    @Override
+    // builds the pillars and allocates the swarm for the next phase in the background
+    protected void prepareLayout(Rectangle box, int cycle, int multiplier) {
+        preparedObstacles = new ArrayList<>();
+        buildPillars(box, 3, preparedObstacles, rand);
+        preparedSwarm = new Swarm(box, preparedObstacles, Difficulty.value(200, 400, cycle) * multiplier);
+    }
+
+    @Override
+    // initializes the attack pattern by building the pillars and an empty swarm
+    public void initialize() {
+        Rectangle box;
+
+        panel.getBullets().clear();
+        finished = false;
+        startTime = panel.getGameTime();
+        box = panel.getBattleBox();
+
+        // increase difficulty the more cycles have been completed
+        duration = Difficulty.value(10000, 12000, panel.getCycleCount());
+        damage = Difficulty.value(10, 15, panel.getCycleCount());
+        maxMinions = Difficulty.value(200, 400, panel.getCycleCount()) * panel.getSpawnMultiplier();
+
+        // use the pillars and swarm prepared during the dialog if they fit, otherwise build them now
+        if (usePrepared(box)) {
+            obstacles = preparedObstacles;
+            swarm = preparedSwarm;
+        } else {
+            obstacles = new ArrayList<>();
+            buildPillars(box, 3, obstacles, rand);
+            swarm = new Swarm(box, obstacles, maxMinions);
+        }
+        preparedObstacles = null;
+        preparedSwarm = null;
+    }
+
+    // builds evenly spaced vertical pillars across the box, each with a random gap to pass through
+    public static void buildPillars(Rectangle box, int count, ArrayList<Rectangle> obstacles, Random rand) {
+        int px;
+        int gapY;
+
+        obstacles.clear();
+        for (int i = 0; i < count; i++) {
+            px = box.x + box.width * (i + 1) / (count + 1) - PILLAR_WIDTH / 2;
+            gapY = box.y + rand.nextInt(box.height - PILLAR_GAP);
+            obstacles.add(new Rectangle(px, box.y, PILLAR_WIDTH, gapY - box.y));
+            obstacles.add(new Rectangle(px, gapY + PILLAR_GAP, PILLAR_WIDTH, box.y + box.height - (gapY + PILLAR_GAP)));
+        }
+    }
+
+    @Override
+    // spawns minions and moves the swarm towards the player
+    public void execute() {
+        long now;
+        Rectangle box;
+        Rectangle playerRect;
+        int sx;
+        int sy;
+
+        now = panel.getGameTime();
+        box = panel.getBattleBox();
+        playerRect = panel.getPlayer().getHitbox();
+
+        // minions enter from the left and right edges of the box
+        for (int i = 0; i < spawnPerTick * panel.getSpawnMultiplier() && swarm.getCount() < maxMinions && panel.allowSpawn(); i++) {
+            sx = rand.nextBoolean() ? box.x + 2 : box.x + box.width - 2;
+            sy = box.y + rand.nextInt(box.height);
+            swarm.spawn(sx, sy);
+        }
+
+        swarm.update(playerRect.x + playerRect.width / 2, playerRect.y + playerRect.height / 2);
+
+        // the attack ends once the duration has passed
+        if (now - startTime > duration) {
+            finished = true;
+            swarm.clear();
+        }
+    }
+
+    @Override
+    // damages the player if they touch a minion or a pillar
+    public int getHazardDamage(Rectangle playerRect) {
+        if (swarm.touches(playerRect)) {
+            return damage;
+        }
+        for (Rectangle o : obstacles) {
+            if (o.intersects(playerRect)) {
+                return damage;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    // returns the number of minions in the swarm
+    public int getEntityCount() {
+        return swarm == null ? 0 : swarm.getCount();
+    }
+
+    @Override
+    // draws the pillars and every minion in the swarm
+    public void drawAttack(Graphics g) {
+        int half;
+
+        g.setColor(Color.WHITE);
+        for (Rectangle o : obstacles) {
+            g.fillRect(o.x, o.y, o.width, o.height);
+        }
+
+        if (swarm == null) {
+            return;
+        }
+        half = Swarm.MINION_SIZE / 2;
+        g.setColor(Color.MAGENTA);
+        for (int i = 0; i < swarm.getCount(); i++) {
+            g.fillRect((int) swarm.getX(i) - half, (int) swarm.getY(i) - half, Swarm.MINION_SIZE, Swarm.MINION_SIZE);
+        }
+    }
+}
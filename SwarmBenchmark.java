@@ -0,0 +1,63 @@
+/*
+ * Author: Michael Zhang and Bryan Yao
+ * Date: 2025-01-16
+ * Description: This class is a small command line benchmark for the Swarm simulation. It fills a
+ * battle box sized area with more and more minions and prints the time per tick and per minion, to
+ * check that the cost per minion stays flat as the swarm grows. Run with: java SwarmBenchmark
+ */
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Random;
+
+public class SwarmBenchmark {
+    private static final int[] SIZES = {250, 500, 1000, 2000, 5000};
+    private static final int WARMUP_TICKS = 1000;
+    private static final int MEASURED_TICKS = 2000;
+
+    public static void main(String[] args) {
+        Rectangle box;
+        ArrayList<Rectangle> obstacles;
+        Random rand;
+        Swarm swarm;
+        long start;
+        double msPerTick;
+        double nsPerMinion;
+
+        box = new Rectangle(400, 210, 600, 400); // same size as the battle box during attacks
+        obstacles = new ArrayList<>();
+        rand = new Random(42);
+        SwarmAttack.buildPillars(box, 3, obstacles, rand);
+
+        System.out.println("minions   ms/tick   ns/minion   field rebuilds");
+        for (int size : SIZES) {
+            swarm = new Swarm(box, obstacles, size);
+            while (swarm.getCount() < size) {
+                swarm.spawn(box.x + rand.nextInt(box.width), box.y + rand.nextInt(box.height));
+            }
+
+            // let the JIT compile the hot paths before measuring
+            for (int t = 0; t < WARMUP_TICKS; t++) {
+                tick(swarm, box, t);
+            }
+
+            start = System.nanoTime();
+            for (int t = 0; t < MEASURED_TICKS; t++) {
+                tick(swarm, box, t);
+            }
+            msPerTick = (System.nanoTime() - start) / 1e6 / MEASURED_TICKS;
+            nsPerMinion = msPerTick * 1e6 / size;
+
+            System.out.printf("%7d   %7.3f   %9.1f   %14d%n", size, msPerTick, nsPerMinion, swarm.getFieldRebuilds());
+        }
+    }
+
+    // moves the target around a circle so the flow field has to follow it, then updates the swarm
+    private static void tick(Swarm swarm, Rectangle box, int t) {
+        int tx;
+        int ty;
+
+        tx = box.x + box.width / 2 + (int) (Math.cos(t * 0.01) * box.width / 3);
+        ty = box.y + box.height / 2 + (int) (Math.sin(t * 0.01) * box.height / 3);
+        swarm.update(tx, ty);
+    }
+}
@@ -10,10 +10,15 @@ import java.awt.*;
 public class VerticalLaserAttack extends AttackPattern {
     private Image laserImage;
     private Image warningImage;
+
+    // the laser and warning sprites, looked up again only when the lane width changes instead of on every frame
+    private SpriteAtlas.Sprite laserSprite;
+    private SpriteAtlas.Sprite warningSprite;
     private long startTime;
     private int step = 0;
     private int damage = 30;
     private boolean warning = true;
+    private boolean fireSoundPlayed = false; // whether the laser sound of the current warning was posted
     private long phaseStartTime;
     private int[][] patterns;
     private boolean lasersActive = false;
@@ -48,29 +53,65 @@ public class VerticalLaserAttack extends AttackPattern {
         this.warningImage = warningImage;
     }
 
+    @Override
+    // packs the laser and warning sprites for this battle box's lanes in the background
+    protected void prepareLayout(Rectangle box, int cycle, int multiplier) {
+        if (laserImage != null && warningImage != null) {
+            SpriteAtlas.get(laserImage, box.width / laserCount, laserImage.getHeight(null));
+            SpriteAtlas.get(warningImage, box.width / laserCount, 30);
+        }
+    }
+
+    @Override
+    // method that turns every laser off for a new game
+    public void reset() {
+        super.reset();
+        step = 0;
+        warning = true;
+        fireSoundPlayed = false;
+        lasersActive = false;
+        singlePhaseActivated = false;
+        finalPhaseActive = false;
+        finalLaserWarning = false;
+        finalLaserActive = false;
+    }
+
+    @Override
+    // method that returns the sounds played while this attack runs
+    public String[] getSoundPaths() {
+        return new String[]{"Sounds/normalcharge.wav", "Sounds/fastcharge.wav", "Sounds/normallaser.wav",
+            "Sounds/fastlaser.wav", "Sounds/finalcharge.wav"};
+    }
+
     // method that initializes the attack pattern
     public void initialize() {
         panel.getBullets().clear(); // clear screen
         finished = false;
-        startTime = System.currentTimeMillis();
+        startTime = panel.getGameTime();
         phaseStartTime = startTime;
         step = 0;
         warning = true;
+        fireSoundPlayed = false;
         lasersActive = false;
         singlePhaseActivated = false;
+        finalPhaseActive = false;
+        finalLaserWarning = false;
+        finalLaserActive = false;
 
+        // lasers hit harder the more cycles have been completed
+        damage = Difficulty.value(30, 40, panel.getCycleCount());
 
         // if cycle >= 1, everything is faster. also, play warning sound based on game cycle
         if (panel.getCycleCount() >= 1) {
-            GamePanel.playSoundEffect("Sounds/fastcharge.wav");
-            damage += 10;
+            panel.playSoundEffect("Sounds/fastcharge.wav");
         } else {
-            GamePanel.playSoundEffect("Sounds/normalcharge.wav");
+            panel.playSoundEffect("Sounds/normalcharge.wav");
         }
 
-        patterns = new int[totalSteps][lanesPerStep]; // invisible steps on the bottom of the board to figure out where the lasers attack
+        // the stress multiplier lights that many times more lanes each step (lanes can repeat)
+        patterns = new int[totalSteps][lanesPerStep * panel.getSpawnMultiplier()]; // invisible steps on the bottom of the board to figure out where the lasers attack
         for (int s = 0; s < totalSteps; s++) {
-            for (int l = 0; l < lanesPerStep; l++) {
+            for (int l = 0; l < patterns[s].length; l++) {
                 patterns[s][l] = 1 + (int)(Math.random() * laserCount); // randomly selects where to spawn laser
             }
         }
@@ -83,20 +124,9 @@ public class VerticalLaserAttack extends AttackPattern {
         long elapsedFinal;
         long wTime;
         long aTime;
+        long fireTime;
 
-        // variables for hitboxes
-        Rectangle box;
-        Rectangle laserRect;
-
-        // variables for drawing the lasers
-        int laserCount;
-        int segmentWidth;
-
-        // variables for drawing the current pattern
-        int[] currentPattern;
-        int lx;
-
-        now = System.currentTimeMillis();
+        now = panel.getGameTime();
 
         // if all patterns have been used, transition to final single-laser phase
         if (step >= patterns.length) {
@@ -123,64 +153,83 @@ public class VerticalLaserAttack extends AttackPattern {
 
         elapsed = now - phaseStartTime;
 
-        // change how fast the game is for the main patterns depending on how long into the attack pattern the player is
-        if (panel.getCycleCount() >= 1){
-            wTime = FAST_WARNING_TIME;
-        } else {
-            wTime = NORMAL_WARNING_TIME;
-        }
-        if (panel.getCycleCount() >= 1){
-            aTime = FAST_ACTIVE_TIME;
-        } else {
-            aTime = NORMAL_ACTIVE_TIME;
-        }
+        // change how fast the game is for the main patterns depending on how many cycles have been completed
+        wTime = Difficulty.value((int) NORMAL_WARNING_TIME, (int) FAST_WARNING_TIME, panel.getCycleCount());
+        aTime = Difficulty.value((int) NORMAL_ACTIVE_TIME, (int) FAST_ACTIVE_TIME, panel.getCycleCount());
 
         if (warning) { // warning of laser
-            if (elapsed > wTime) {
-                warning = false;
-                lasersActive = true;
-                phaseStartTime = now;
+            // the lasers turn on at the first beat of the music after the warning time. their sound is posted
+            // early by the audio latency, so it is heard right as they turn on
+            fireTime = panel.getNextBeat(phaseStartTime + wTime);
+            if (!fireSoundPlayed && now > fireTime - panel.getAudioLatency()) {
+                fireSoundPlayed = true;
                 if (panel.getCycleCount() >= 1) {
-                    GamePanel.playSoundEffect("Sounds/fastlaser.wav");
+                    panel.playSoundEffect("Sounds/fastlaser.wav");
                 } else {
-                    GamePanel.playSoundEffect("Sounds/normallaser.wav");
+                    panel.playSoundEffect("Sounds/normallaser.wav");
                 }
             }
+            if (now > fireTime) {
+                warning = false;
+                lasersActive = true;
+                phaseStartTime = now;
+            }
         } else if (lasersActive) {
             if (elapsed > aTime) {
                 step++;
                 if (step < patterns.length) {
                     warning = true;
+                    fireSoundPlayed = false;
                     lasersActive = false;
                     phaseStartTime = now;
 
                     if (panel.getCycleCount() >= 1) {
-                        GamePanel.playSoundEffect("Sounds/fastcharge.wav");
+                        panel.playSoundEffect("Sounds/fastcharge.wav");
                     } else {
-                        GamePanel.playSoundEffect("Sounds/normalcharge.wav");
+                        panel.playSoundEffect("Sounds/normalcharge.wav");
                     }
                 }
-            } else {
-                // actively draw lasers for the current pattern
-                box = panel.getBattleBox();
-                laserCount = 6;
-                segmentWidth = box.width / laserCount;
-                currentPattern = patterns[step];
-
-                for (int i : currentPattern) {
-                    lx = box.x + (i - 1) * segmentWidth;
-                    laserRect = new Rectangle(lx, box.y, segmentWidth, box.height);
-
-                    if (laserRect.intersects(panel.getPlayer().getHitbox())) {
-                        panel.decreasePlayerHP(damage);
-                        if (panel.getPlayer().isDead()) {
-                            finished = true;
-                            return;
-                        }
-                    }
+            }
+        }
+    }
+
+    @Override
+    // returns the number of lasers lit (or warned about) this step
+    public int getEntityCount() {
+        if (finalPhaseActive) {
+            return 1;
+        }
+        return patterns != null && step < patterns.length ? patterns[step].length : 0;
+    }
+
+    @Override
+    // checks if the player is standing in an active laser lane
+    public int getHazardDamage(Rectangle playerRect) {
+        if (finalPhaseActive) {
+            // the final single laser only hurts once it has turned on
+            if (finalLaserActive && laneRect(finalLaserLane).intersects(playerRect)) {
+                return damage;
+            }
+        } else if (lasersActive && step < patterns.length) {
+            for (int i : patterns[step]) {
+                if (laneRect(i).intersects(playerRect)) {
+                    return damage;
                 }
             }
         }
+        return 0;
+    }
+
+    // returns the hitbox of a laser lane (from 1 to 6)
+    private Rectangle laneRect(int lane) {
+        Rectangle box;
+        int laserCount;
+        int segmentWidth;
+
+        box = panel.getBattleBox();
+        laserCount = 6;
+        segmentWidth = box.width / laserCount;
+        return new Rectangle(box.x + (lane - 1) * segmentWidth, box.y, segmentWidth, box.height);
     }
 
     // handles the final single-laser logic over 10 seconds where code spawns a warning where the player is, waits, then spawns the laser and continue/repeat
@@ -194,7 +243,7 @@ public class VerticalLaserAttack extends AttackPattern {
                 finalLaserWarning = false;
                 finalLaserActive = true;
 
-                GamePanel.playSoundEffect("Sounds/normallaser.wav");
+                panel.playSoundEffect("Sounds/normallaser.wav");
             }
         }
         else if (finalLaserActive) {
@@ -209,13 +258,9 @@ public class VerticalLaserAttack extends AttackPattern {
                     // Laser duration finished, spawn next warning
                     spawnFinalLaserWarning(now);
 
-                    GamePanel.playSoundEffect("Sounds/finalcharge.wav");
+                    panel.playSoundEffect("Sounds/finalcharge.wav");
                 }
             }
-            else {
-                // check if user intersects
-                doFinalLaserDamage();
-            }
         }
     }
 
@@ -238,7 +283,7 @@ public class VerticalLaserAttack extends AttackPattern {
         finalLaserWarnStart = now;
 
         // play sound effect for warning
-        GamePanel.playSoundEffect("Sounds/finalcharge.wav");
+        panel.playSoundEffect("Sounds/finalcharge.wav");
 
         // figure out the lane where user is
         box = panel.getBattleBox();
@@ -260,31 +305,7 @@ public class VerticalLaserAttack extends AttackPattern {
         finalLaserLane = laneIndex + 1; // lane from 1..6
     }
 
-    // damages the user if they are in the final laser
-    private void doFinalLaserDamage() {
-        Rectangle box;
-        int laserCount;
-        int segmentWidth;
-
-        // variables for hitbox
-        int lx;
-        Rectangle laserRect;
-
-        box = panel.getBattleBox();
-        laserCount = 6;
-        segmentWidth = box.width / laserCount;
-
-        lx = box.x + (finalLaserLane - 1) * segmentWidth;
-        laserRect = new Rectangle(lx, box.y, segmentWidth, box.height);
-
-        if (laserRect.intersects(panel.getPlayer().getHitbox())) {
-            panel.decreasePlayerHP(damage);
-            if (panel.getPlayer().isDead()) {
-                finished = true;
-            }
-        }
-    }
-
+    @Override
     // draw the laser attacks
     public void drawAttack(Graphics g) {
         Rectangle box;
@@ -300,6 +321,10 @@ public class VerticalLaserAttack extends AttackPattern {
         box = panel.getBattleBox();
         laserCount = 6;
         segmentWidth = box.width / laserCount;
+        if (laserSprite == null || laserSprite.getWidth() != segmentWidth) {
+            laserSprite = SpriteAtlas.get(laserImage, segmentWidth, laserImage.getHeight(null));
+            warningSprite = SpriteAtlas.get(warningImage, segmentWidth, 30);
+        }
         g2d = (Graphics2D) g.create();
         g2d.setClip(box); // set clipping region to box, so image doesnt go outside
 
@@ -311,7 +336,7 @@ public class VerticalLaserAttack extends AttackPattern {
                 g.setColor(Color.YELLOW);
                 for (int lane : currentPattern) {
                     lx = box.x + (lane - 1) * segmentWidth;
-                    g.drawImage(warningImage, lx, box.y + box.height + 5, segmentWidth,30, null);
+                    warningSprite.draw(g, lx, box.y + box.height + 5);
                 }
             } else if (lasersActive) {
                 g.setColor(Color.WHITE);
@@ -320,7 +345,7 @@ public class VerticalLaserAttack extends AttackPattern {
                     drawY = box.y; 
                     // tile the image vertically from top to bottom of the battle box
                     while (drawY < box.y + box.height) {
-                        g2d.drawImage(laserImage, lx, drawY, segmentWidth, laserImage.getHeight(null), null);
+                        laserSprite.draw(g2d, lx, drawY);
                         drawY += laserImage.getHeight(null);
                     }
                 }
@@ -331,14 +356,14 @@ public class VerticalLaserAttack extends AttackPattern {
                 if (finalLaserWarning) {
                     lx = box.x + (finalLaserLane - 1) * segmentWidth;
                     // draw a small rectangle at the bottom to show where the laser will appear as a warning
-                    g.drawImage(warningImage, lx, box.y + box.height + 5, segmentWidth, 30, null);
+                    warningSprite.draw(g, lx, box.y + box.height + 5);
                 }
                 else if (finalLaserActive) {
                     drawY = box.y;
                     lx = box.x + (finalLaserLane - 1) * segmentWidth;
                     // draw the actual laser
                     while(drawY < box.y + box.height) {
-                        g2d.drawImage(laserImage, lx, drawY, segmentWidth, laserImage.getHeight(null), null);
+                        laserSprite.draw(g2d, lx, drawY);
                         drawY += laserImage.getHeight(null);
                     }
                 }
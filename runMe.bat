@@ -1,19 +1,42 @@
 javac Main.java
 javac AttackPattern.java
+javac AttackScheduler.java
+javac AudioClock.java
+javac AudioCommandQueue.java
+javac Arena.java
+javac AssetLoader.java
+javac AssetManager.java
+javac AssetArchive.java
+javac SpriteAtlas.java
+javac SpriteCache.java
+javac StaticLayer.java
+javac AudioMixer.java
 javac Boss.java
 javac Bullet.java
 javac Column.java
+javac FrameStats.java
+javac Difficulty.java
 javac GameFrame.java
 javac GamePanel.java
 javac HomingBullet.java
 javac HomingProjectileAttack.java
+javac JitWarmup.java
 javac Item.java
 javac MovingGapAttack.java
+javac MusicStream.java
 javac GunnerAttack.java
 javac Player.java
 javac RandomProjectileAttack.java
+javac SoundEffects.java
+javac SpawnGovernor.java
+javac StressTest.java
 javac VerticalLaserAttack.java
+javac RotatingBeamAttack.java
+javac Swarm.java
+javac SwarmAttack.java
+javac SwarmBenchmark.java
 
 pause
+java Main --pack-if-stale
 java Main
 pause